@@ -2,30 +2,42 @@ package de.engehausen.cc2;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
+import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 
 import org.armedbear.lisp.Cons;
 import org.armedbear.lisp.Interpreter;
@@ -33,38 +45,53 @@ import org.armedbear.lisp.LispObject;
 import org.armedbear.lisp.Packages;
 import org.armedbear.lisp.SimpleString;
 import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.reflect.ClassPath;
 import com.google.common.reflect.ClassPath.ClassInfo;
 
+import de.engehausen.cc2.api.AnytimeBusyBeeFunction;
 import de.engehausen.cc2.api.BusyBeeFunction;
+import de.engehausen.cc2.api.BusyBeeGraphFunction;
 import de.engehausen.cc2.api.CharacterOperation;
 import de.engehausen.cc2.api.Contribution;
 import de.engehausen.cc2.api.EditDistanceFunction;
+import de.engehausen.cc2.api.FlowerGraph;
 import de.engehausen.cc2.api.Verifier;
 import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
 import de.engehausen.cc2.data.EditDistanceData;
 import de.engehausen.cc2.data.HappySevenData;
 import de.engehausen.cc2.data.HuffmanData;
 import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.LazyList;
 import de.engehausen.cc2.data.PancakeFlipperData;
 import de.engehausen.cc2.data.Results;
 import de.engehausen.cc2.data.Results.Record;
 import de.engehausen.cc2.data.ReversePolishNotationData;
 import de.engehausen.cc2.data.XmlData;
+import de.engehausen.cc2.index.ContributionIndex;
+import de.engehausen.cc2.timing.ResourceSampler;
+import de.engehausen.cc2.verifiers.BusyBeeProgress;
 import de.engehausen.cc2.verifiers.BusyBeeVerifier;
 import de.engehausen.cc2.verifiers.EditDistanceVerifier;
 import de.engehausen.cc2.verifiers.HappySevenVerifier;
 import de.engehausen.cc2.verifiers.HuffmanVerifier;
 import de.engehausen.cc2.verifiers.PancakeVerifier;
 import de.engehausen.cc2.verifiers.ReversePolishNotationVerifier;
+import de.engehausen.cc2.verifiers.StreamingXmlVerifier;
 import de.engehausen.cc2.verifiers.XmlVerifier;
 
 /**
  * Runs challenge solution contributions and records the results.
+ * Contributions can be run in parallel (see {@link Settings#parallelism}); in this
+ * case each worker thread uses its own XSLT transformer and borrows an engine
+ * from the {@link JavaScriptRuntime}.
+ * The Lisp interpreter is a single image per JVM, so Lisp challenges are
+ * run one at a time; once a Lisp invocation timed out, the interpreter is
+ * not used anymore (see {@link #abandonLisp(String, List)}).
  */
 public class Executor implements Closeable {
 
@@ -72,14 +99,21 @@ public class Executor implements Closeable {
 
 	private static final String LISP_FUNCTION = "PROCESS";
 	private static final String LISP_USER_SPACE = "CL-USER";
-	private static final String REAL_JS = "toRealJavaScript";
+	private static final String JS_FUNCTION = "process";
 	private static final String FLAGS = "flags";
 	private static final Cons EMPTY_CONS = new Cons(new LispObject());
+	private static final Object LISP_LOCK = new Object();
+	// the contribution whose timed out invocation may still be running in the Lisp image
+	private static volatile String lispAbandoned;
 
 	private final Interpreter lispInterpreter;
-	private final ScriptEngine javaScript;
+	private final JavaScriptRuntime javaScript;
 
 	private final Inputs inputs;
+	private final Map<Results, String> challenges;
+	private final Settings settings;
+	private final ThreadLocal<Supervisor> supervisor;
+	private final Semaphore timedSlots;
 	
 	private final Verifier<List<String>, BusyBeeData> busyBeeVerifier;
 	private final Verifier<List<CharacterOperation>, EditDistanceData> editDistanceVerifier;
@@ -89,18 +123,30 @@ public class Executor implements Closeable {
 	private final Verifier<Object, PancakeFlipperData> pancakeVerifier;
 	private final Verifier<Object, HappySevenData> happySevenVerifier;
 	
-	private final Path tempFile;
-	private final XsltTransformer xsltTransformer;
+	private final LispLoader lispLoader;
+	private final ResultCache resultCache;
+	private final Map<String, String> fingerprints;
+	private final ThreadLocal<XsltTransformer> xsltTransformer;
 
 	/**
 	 * Creates the executor for the given inputs.
 	 * @param inputs the inputs to run the challenges with, must not be {@code null}.
 	 */
 	public Executor(final Inputs inputs) {
+		this(inputs, new Settings());
+	}
+
+	/**
+	 * Creates the executor for the given inputs and settings.
+	 * @param inputs the inputs to run the challenges with, must not be {@code null}.
+	 * @param settings the execution settings, must not be {@code null}.
+	 */
+	public Executor(final Inputs inputs, final Settings settings) {
 		this(
 			inputs,
+			settings,
 			Interpreter.createInstance(),
-			new XsltTransformer(),
+			XsltTransformer::new,
 			new BusyBeeVerifier(),
 			new EditDistanceVerifier(),
 			new HuffmanVerifier(),
@@ -126,14 +172,15 @@ public class Executor implements Closeable {
 	 * @throws IOException in case of error
 	 */
 	public void runAll() throws IOException {
-		run(info -> info.getName().startsWith(PKG_PREFIX));
+		runIndexed(name -> name.startsWith(PKG_PREFIX));
 	}
 
 	/**
 	 * Creates the executor with the given components.
 	 * @param inputs the inputs to run the challenges with, must not be {@code null}.
+	 * @param settings the execution settings, must not be {@code null}.
 	 * @param interpreter the interpreter to use
-	 * @param xsltTransformer the XSLT transformer to use
+	 * @param xsltTransformers the supplier of XSLT transformers, one is used per worker thread
 	 * @param busyBeeVerifier the busy bee verifier
 	 * @param editDistanceVerifier the minimal edit distance verifier
 	 * @param huffmanVerifier the Huffman coding verifier
@@ -144,8 +191,9 @@ public class Executor implements Closeable {
 	 */
 	protected Executor(
 		final Inputs inputs,
+		final Settings settings,
 		final Interpreter interpreter,
-		final XsltTransformer xsltTransformer,
+		final Supplier<XsltTransformer> xsltTransformers,
 		final Verifier<List<String>, BusyBeeData> busyBeeVerifier,
 		final Verifier<List<CharacterOperation>, EditDistanceData> editDistanceVerifier,
 		final Verifier<LispObject, HuffmanData> huffmanVerifier,
@@ -154,8 +202,13 @@ public class Executor implements Closeable {
 		final Verifier<Object, PancakeFlipperData> pancakeVerifier,
 		final Verifier<Object, HappySevenData> happySevenVerifier) {
 		this.inputs = inputs;
+		// weak keys, so that released inputs are not held
+		this.challenges = new MapMaker().weakKeys().makeMap();
+		this.settings = settings;
+		this.supervisor = ThreadLocal.withInitial(Supervisor::new);
+		this.timedSlots = settings.timedSlots > 0 ? new Semaphore(settings.timedSlots, true) : null;
 		this.lispInterpreter = interpreter;
-		this.xsltTransformer = xsltTransformer;
+		this.xsltTransformer = ThreadLocal.withInitial(xsltTransformers);
 		this.busyBeeVerifier = busyBeeVerifier;
 		this.editDistanceVerifier = editDistanceVerifier;
 		this.huffmanVerifier = huffmanVerifier;
@@ -167,39 +220,44 @@ public class Executor implements Closeable {
 			if (System.getProperty("nashorn.args") == null) {
 				System.setProperty("nashorn.args", "--language=es6");
 			}
-			javaScript = new ScriptEngineManager().getEngineByName("nashorn");
-			javaScript.eval("function " + REAL_JS + "(i) { return Java.from(i); }");
-			tempFile = ensureLispScript();
+			javaScript = new JavaScriptRuntime(settings.parallelism);
+			lispLoader = new LispLoader(interpreter, settings.lispCache ? ensureTarget().resolve("fasl") : null);
+			resultCache = settings.resultCache ? new ResultCache(ensureTarget().resolve("cache"), setup()) : null;
+			fingerprints = new ConcurrentHashMap<>();
 			runLisp("/abcl.lisp");
-		} catch (ScriptException|IOException e) {
+		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
-	
-	private static Path ensureLispScript() {
-		try {
-			final Path userDir = FileSystems
-				.getDefault()
-				.getPath(".")
-				.normalize()
-				.toAbsolutePath();
-			final Path target = userDir.resolve("target");
-			if (Files.notExists(target)) {
-				Files.createDirectory(target);
-			}
-			final Path tempFile = target.resolve("script.lisp");
-			Runtime.getRuntime().addShutdownHook(new Thread( () -> {
-				try {
-					Files.delete(tempFile);
-				} catch (IOException e) {
-					// just give up...
-				}
-			}));
-			return tempFile;
-		} catch (IOException e) {
-			throw new IllegalStateException(e);
+	/**
+	 * Describes the settings which affect the records, so that records are
+	 * only reused from the result cache if they were made with the same settings.
+	 * @return the description of the setup
+	 */
+	protected String setup() {
+		final StringBuilder result = new StringBuilder()
+			.append(settings.measurement)
+			.append(", responses ")
+			.append(settings.fullResponses ? 0 : settings.responseCap);
+		if (settings.xmlStreaming) {
+			// different pipeline and response format
+			result.append(", xml streaming");
 		}
+		return result.toString();
+	}
+
+	private static Path ensureTarget() throws IOException {
+		final Path userDir = FileSystems
+			.getDefault()
+			.getPath(".")
+			.normalize()
+			.toAbsolutePath();
+		final Path target = userDir.resolve("target");
+		if (Files.notExists(target)) {
+			Files.createDirectory(target);
+		}
+		return target;
 	}
 
 	/**
@@ -208,23 +266,104 @@ public class Executor implements Closeable {
 	 * @throws IOException in case of error
 	 */
 	protected void run(final Predicate<? super ClassInfo> classFilter) throws IOException {
-		ClassPath
+		run(ClassPath
 			.from(Thread.currentThread().getContextClassLoader())
 			.getTopLevelClasses()
 			.stream()
 			.filter(classFilter)
-			.forEach(this::run);
+			.map(ClassInfo::load)
+			.filter(clz -> clz.isAnnotationPresent(Contribution.class))
+			.collect(Collectors.toList()));
 	}
 
-	protected LispObject runLisp(final String scriptName) throws IOException {
-		try (final InputStream stream = Executor.class.getResourceAsStream(scriptName)) {
-			Files.copy(
-				stream, 
-				tempFile, 
-				StandardCopyOption.REPLACE_EXISTING);
-			final String instr = "(load \"target/script.lisp\")";
-			return lispInterpreter.eval(instr); 
+	/**
+	 * Runs the contributions whose {@code package-info} class name matches the given filter.
+	 * The contributions are looked up in the {@link ContributionIndex} written at compile time,
+	 * so only the matching {@code package-info} classes are loaded. Without an index, the
+	 * classpath is scanned instead.
+	 * @param nameFilter the filter to use for the class names, e.g. {@code de.engehausen.cc2.impl.examples.package-info}
+	 * @throws IOException in case of error
+	 */
+	protected void runIndexed(final Predicate<? super String> nameFilter) throws IOException {
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		final Optional<ContributionIndex> index = ContributionIndex.load(loader);
+		if (!index.isPresent()) {
+			run(info -> nameFilter.test(info.getName()));
+			return;
 		}
+		final List<Class<?>> contributions = new ArrayList<>();
+		for (final String name : index.get().classNames()) {
+			if (nameFilter.test(name)) {
+				try {
+					final Class<?> clz = Class.forName(name, true, loader);
+					if (clz.isAnnotationPresent(Contribution.class)) {
+						contributions.add(clz);
+					}
+				} catch (ClassNotFoundException e) {
+					// entry of a removed contribution left in the index
+				}
+			}
+		}
+		run(contributions);
+	}
+
+	/**
+	 * Runs the given contributions, in parallel if so configured. Unless forked,
+	 * all contributions are run for one challenge before the next challenge is run.
+	 * @param contributions the classes carrying the {@link Contribution} annotation, must not be {@code null}.
+	 */
+	protected void run(final List<Class<?>> contributions) {
+		if (settings.fork) {
+			final ForkedRunner forks;
+			try {
+				forks = new ForkedRunner(this, inputs, settings);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			try {
+				run(contributions, forks::run);
+			} finally {
+				forks.close();
+			}
+		} else {
+			// challenge by challenge, so that the inputs of a challenge are loaded once for all
+			// contributions and the indexes and bounds derived from them are built only once
+			for (final Map.Entry<String, List<? extends Results>> entry : inputs.challenges().entrySet()) {
+				loaded(entry.getValue(), () -> run(contributions, clz -> run(clz, entry.getKey()::equals)));
+			}
+		}
+	}
+
+	private void run(final List<Class<?>> contributions, final Consumer<Class<?>> runner) {
+		final int workers = Math.min(settings.parallelism, contributions.size());
+		if (workers <= 1) {
+			contributions.forEach(runner);
+			return;
+		}
+		final ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			final List<Future<?>> pending = contributions
+				.stream()
+				.map(clz -> pool.submit(() -> runner.accept(clz)))
+				.collect(Collectors.toList());
+			for (final Future<?> future : pending) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	protected LispObject runLisp(final String scriptName) throws IOException {
+		return lispLoader.load(scriptName);
 	}
 	/**
 	 * Reads the given resource from the classpath and returns
@@ -250,31 +389,176 @@ public class Executor implements Closeable {
 	 * @param info the class information, must not be {@code null}.
 	 */
 	protected void run(final ClassInfo info) {
-		final Class<?> clz = info.load();
+		run(info.load());
+	}
+
+	/**
+	 * Executes the contributions defined for the given class, if any.
+	 * @param clz the class, normally a {@code package-info}, must not be {@code null}.
+	 */
+	protected void run(final Class<?> clz) {
+		run(clz, challenge -> true);
+	}
+
+	/**
+	 * Executes the contributions defined for the given class, if any, for the selected challenges.
+	 * @param clz the class, normally a {@code package-info}, must not be {@code null}.
+	 * @param selected the filter for the challenge names as used by {@link Inputs#challenges()}, must not be {@code null}.
+	 */
+	protected void run(final Class<?> clz, final Predicate<String> selected) {
 		final Optional<Contribution> candidate = Optional.ofNullable(clz.getAnnotation(Contribution.class));
 		if (candidate.isPresent()) {
 			final Contribution contribution = candidate.get();
 			final String name = getName(clz);
+			if (resultCache != null && !fingerprints.containsKey(name)) {
+				try {
+					fingerprints.put(name, ResultCache.fingerprint(clz, resources(contribution)));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
 			// Java
-			newInstance(contribution.minimalEditDistance(), EditDistanceFunction.class)
-				.ifPresent(impl -> processEditDistance(name, impl));
-			newInstance(contribution.busyBee(), BusyBeeFunction.class)
-				.ifPresent(impl -> processBusyBee(name, impl));
+			if (selected.test(Inputs.EDIT_DISTANCES)) {
+				newInstance(contribution.minimalEditDistance(), EditDistanceFunction.class)
+					.ifPresent(impl -> loaded(inputs.editDistances, () -> processEditDistance(name, impl)));
+			}
+			if (selected.test(Inputs.BEE_GRAPHS)) {
+				final Optional<? extends AnytimeBusyBeeFunction> anytimeBusyBee = newInstance(contribution.anytimeBusyBee(), AnytimeBusyBeeFunction.class);
+				final Optional<? extends BusyBeeGraphFunction> busyBeeGraph = newInstance(contribution.busyBeeGraph(), BusyBeeGraphFunction.class);
+				if (anytimeBusyBee.isPresent()) {
+					loaded(inputs.beeGraphs, () -> processAnytimeBusyBee(name, anytimeBusyBee.get()));
+				} else if (busyBeeGraph.isPresent()) {
+					loaded(inputs.beeGraphs, () -> processBusyBeeGraph(name, busyBeeGraph.get()));
+				} else {
+					newInstance(contribution.busyBee(), BusyBeeFunction.class)
+						.ifPresent(impl -> loaded(inputs.beeGraphs, () -> processBusyBee(name, impl)));
+				}
+			}
 			// JavaScript
-			fileInfo(contribution.pancakeFlipper())
-				.ifPresent(scriptFile -> processPancakes(name, scriptFile));
-			fileInfo(contribution.happySeven())
-				.ifPresent(scriptFile -> processHappySeven(name, scriptFile));
+			if (selected.test(Inputs.PANCAKES)) {
+				fileInfo(contribution.pancakeFlipper())
+					.ifPresent(scriptFile -> loaded(inputs.pancakes, () -> processPancakes(name, scriptFile)));
+			}
+			if (selected.test(Inputs.HAPPY_SEVEN)) {
+				fileInfo(contribution.happySeven())
+					.ifPresent(scriptFile -> loaded(inputs.happySeven, () -> processHappySeven(name, scriptFile)));
+			}
 			// Lisp
-			fileInfo(contribution.reversePolishNotation())
-				.ifPresent(lispFile -> processPolishNotation(name, lispFile));
-			fileInfo(contribution.huffmanCoding())
-				.ifPresent(lispFile ->processHuffmanCoding(name, lispFile));
+			if (selected.test(Inputs.NOTATION_EXPRESSIONS)) {
+				fileInfo(contribution.reversePolishNotation())
+					.ifPresent(lispFile -> loaded(inputs.notationExpressions, () -> processPolishNotation(name, lispFile)));
+			}
+			if (selected.test(Inputs.HUFFMAN_STRINGS)) {
+				fileInfo(contribution.huffmanCoding())
+					.ifPresent(lispFile -> loaded(inputs.huffmanStrings, () -> processHuffmanCoding(name, lispFile)));
+			}
 			// XSLT
-			fileInfo(contribution.xsltEasy())
-				.ifPresent(xslt -> processXml(name, xslt, i -> i.xmlEasy));
-			fileInfo(contribution.xsltHard())
-				.ifPresent(xslt -> processXml(name, xslt, i -> i.xmlHard));
+			if (selected.test(Inputs.XML_EASY)) {
+				fileInfo(contribution.xsltEasy())
+					.ifPresent(xslt -> loaded(inputs.xmlEasy, () -> processXml(name, xslt, i -> i.xmlEasy)));
+			}
+			if (selected.test(Inputs.XML_HARD)) {
+				fileInfo(contribution.xsltHard())
+					.ifPresent(xslt -> loaded(inputs.xmlHard, () -> processXml(name, xslt, i -> i.xmlHard)));
+			}
+		}
+	}
+
+	/**
+	 * Runs a task with the inputs of a challenge. Lazily loaded inputs are
+	 * materialized while the task runs and released once no other task uses
+	 * them, so that only the challenges being run take up memory.
+	 * @param list the inputs of the challenge, may be {@code null}
+	 * @param task the task to run, must not be {@code null}
+	 */
+	protected void loaded(final List<? extends Results> list, final Runnable task) {
+		if (!(list instanceof LazyList)) {
+			task.run();
+			return;
+		}
+		final LazyList<?> lazy = (LazyList<?>) list;
+		lazy.acquire();
+		try {
+			task.run();
+		} finally {
+			lazy.release();
+		}
+	}
+
+	/**
+	 * Returns the resources the given contribution refers to.
+	 * @param contribution the contribution
+	 * @return the resource names, e.g. {@code /examples/rpnDemo.lisp}
+	 */
+	protected List<String> resources(final Contribution contribution) {
+		return Stream
+			.of(
+				contribution.pancakeFlipper(),
+				contribution.happySeven(),
+				contribution.reversePolishNotation(),
+				contribution.huffmanCoding(),
+				contribution.xsltEasy(),
+				contribution.xsltHard())
+			.filter(resource -> !resource.isEmpty())
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the inputs the given contribution still has to be run with. Inputs
+	 * for which the result cache holds a record of the unchanged contribution are
+	 * recorded right away, unless {@link Settings#rerun} is set.
+	 * @param <T> the type of the input data
+	 * @param name the name of the contribution
+	 * @param data the input data of a challenge, may be {@code null}
+	 * @return the inputs to run the contribution with, never {@code null}
+	 */
+	protected <T extends Results> List<T> pending(final String name, final List<T> data) {
+		if (data == null) {
+			return Collections.emptyList();
+		}
+		final String fingerprint = fingerprints.get(name);
+		if (resultCache == null || settings.rerun || fingerprint == null) {
+			return data;
+		}
+		final List<T> result = new ArrayList<>(data.size());
+		for (final T item : data) {
+			final Record record = resultCache.get(cacheKey(fingerprint, item));
+			if (record == null) {
+				result.add(item);
+			} else {
+				recorded(name, item, putRecord(name, item, record));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stores the record of a contribution in the result cache.
+	 * @param name the name of the contribution
+	 * @param results the input data
+	 * @param record the record
+	 */
+	protected void cache(final String name, final Results results, final Record record) {
+		final String fingerprint = fingerprints.get(name);
+		if (resultCache != null && fingerprint != null && !record.timedOut) {
+			try {
+				resultCache.put(cacheKey(fingerprint, results), record);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private String cacheKey(final String fingerprint, final Results results) {
+		try {
+			return resultCache.key(
+				fingerprint,
+				results,
+				budget(results),
+				results instanceof XmlData && ((XmlData) results).xmlIn != null ? Collections.singletonList(((XmlData) results).xmlIn) : Collections.emptyList(),
+				results instanceof XmlData && ((XmlData) results).xmlFile != null ? Collections.singletonList(Paths.get(((XmlData) results).xmlFile)) : Collections.emptyList());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
 		}
 	}
 
@@ -283,31 +567,97 @@ public class Executor implements Closeable {
 	}
 
 	protected void processEditDistance(final String name, final EditDistanceFunction function) {
-		for (final EditDistanceData data : inputs.editDistances) {
+		for (final EditDistanceData data : pending(name, inputs.editDistances)) {
 			timedExecution(name, data, () -> {
 				final List<CharacterOperation> edits = function.apply(data.from, data.to);
-				return putRecord(name, data, new Record(editDistanceVerifier.verify(edits, data), editDistanceVerifier.toString(edits), 0));
+				return verified(editDistanceVerifier, edits, data);
 			});
 		}
 	}
 
 	protected void processBusyBee(final String name, final BusyBeeFunction function) {
-		for (final BusyBeeData data : inputs.beeGraphs) {
+		for (final BusyBeeData data : pending(name, inputs.beeGraphs)) {
+			busyBeeVerifier.prepare(data);
 			timedExecution(name, data, () -> {
 				final List<String> nodes = function.apply(data.connections, Integer.valueOf(data.maxTime));
-				return putRecord(name, data, new Record(busyBeeVerifier.verify(nodes, data), busyBeeVerifier.toString(nodes), 0));
+				return verified(busyBeeVerifier, nodes, data);
+			});
+		}
+	}
+
+	protected void processBusyBeeGraph(final String name, final BusyBeeGraphFunction function) {
+		for (final BusyBeeData data : pending(name, inputs.beeGraphs)) {
+			// copied outside of the measurement, the verifier keeps using its own index
+			final FlowerGraph graph = BusyBeeGraph.of(data).copy();
+			busyBeeVerifier.prepare(data);
+			timedExecution(name, data, () -> {
+				final int[] path = function.apply(graph, data.maxTime);
+				return verifiedPath(graph, path, data);
+			});
+		}
+	}
+
+	protected void processAnytimeBusyBee(final String name, final AnytimeBusyBeeFunction function) {
+		for (final BusyBeeData data : pending(name, inputs.beeGraphs)) {
+			final FlowerGraph graph = BusyBeeGraph.of(data).copy();
+			busyBeeVerifier.prepare(data);
+			timedExecution(name, data, () -> {
+				final BusyBeeProgress progress = new BusyBeeProgress(data);
+				final int[] path = function.apply(graph, data.maxTime, progress);
+				// the result counts as published when returned
+				progress.accept(path);
+				final Record record = verifiedPath(graph, path, data);
+				progress.fill(record);
+				return record;
 			});
 		}
 	}
 
+	/**
+	 * Verifies a path of flower ids. Paths containing ids which do not belong
+	 * to the field fail verification, all others are verified by their flower names.
+	 * @param graph the flower field
+	 * @param path the flower ids, may be {@code null}
+	 * @param data the input data
+	 * @return the record of the verification, never {@code null}
+	 */
+	protected Record verifiedPath(final FlowerGraph graph, final int[] path, final BusyBeeData data) {
+		if (path == null) {
+			return verified(busyBeeVerifier, null, data);
+		}
+		final List<String> names = new ArrayList<>(path.length);
+		for (final int id : path) {
+			if (id < 0 || id >= graph.size()) {
+				return new Record("invalid flower id " + id, Arrays.toString(path), 0);
+			}
+			names.add(graph.name(id));
+		}
+		return verified(busyBeeVerifier, names, data);
+	}
+
 	protected void processPolishNotation(final String name, final String resource) {
+		synchronized (LISP_LOCK) {
+			doProcessPolishNotation(name, resource);
+		}
+	}
+
+	private void doProcessPolishNotation(final String name, final String resource) {
+		final List<ReversePolishNotationData> pending = pending(name, inputs.notationExpressions);
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (lispAbandoned != null) {
+			failed(name, pending, lispUnavailable());
+			return;
+		}
 		try {
 			runLisp(resource);
 			final LispObject function = Packages
 				.findPackage(LISP_USER_SPACE)
 				.findAccessibleSymbol(LISP_FUNCTION)
 				.getSymbolFunction();
-			for (final ReversePolishNotationData data : inputs.notationExpressions) {
+			for (int i = 0; i < pending.size(); i++) {
+				final ReversePolishNotationData data = pending.get(i);
 				final Cons expressionList = Stream
 					.of(data.expression.split(" "))
 					.filter(s -> s.length() > 0)
@@ -323,10 +673,13 @@ public class Executor implements Closeable {
 						}
 						return b;
 					});
-				timedExecution(name, data, () -> {
+				if (!timedExecution(name, data, () -> {
 					final LispObject result = function.execute(expressionList);
-					return putRecord(name, data, new Record(polishNotationVerifier.verify(result, data), polishNotationVerifier.toString(result), 0));
-				});
+					return verified(polishNotationVerifier, result, data);
+				})) {
+					abandonLisp(name, pending.subList(i + 1, pending.size()));
+					break;
+				}
 			}
 			
 		} catch (IOException e) {
@@ -335,17 +688,35 @@ public class Executor implements Closeable {
 	}
 
 	protected void processHuffmanCoding(final String name, final String resource) {
+		synchronized (LISP_LOCK) {
+			doProcessHuffmanCoding(name, resource);
+		}
+	}
+
+	private void doProcessHuffmanCoding(final String name, final String resource) {
+		final List<HuffmanData> pending = pending(name, inputs.huffmanStrings);
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (lispAbandoned != null) {
+			failed(name, pending, lispUnavailable());
+			return;
+		}
 		try {
 			runLisp(resource);
 			final LispObject function = Packages
 				.findPackage(LISP_USER_SPACE)
 				.findAccessibleSymbol(LISP_FUNCTION)
 				.getSymbolFunction();
-			for (final HuffmanData data : inputs.huffmanStrings) {
-				timedExecution(name, data, () -> {
+			for (int i = 0; i < pending.size(); i++) {
+				final HuffmanData data = pending.get(i);
+				if (!timedExecution(name, data, () -> {
 					final LispObject result = function.execute(new SimpleString(data.text));
-					return putRecord(name, data, new Record(huffmanVerifier.verify(result, data), huffmanVerifier.toString(result), 0));
-				});
+					return verified(huffmanVerifier, result, data);
+				})) {
+					abandonLisp(name, pending.subList(i + 1, pending.size()));
+					break;
+				}
 			}
 			
 		} catch (IOException e) {
@@ -353,27 +724,88 @@ public class Executor implements Closeable {
 		}
 	}
 
+	/**
+	 * Stops using the Lisp interpreter after an invocation timed out. Java interrupts do not
+	 * stop the evaluation, so the abandoned invocation keeps running in the single Lisp image;
+	 * loading another script or invoking another function could interfere with it. The remaining
+	 * inputs of the contribution and all later Lisp inputs are recorded as failed.
+	 * @param name the name of the contribution whose invocation timed out
+	 * @param remaining the inputs the contribution was not run with yet
+	 */
+	protected void abandonLisp(final String name, final List<? extends Results> remaining) {
+		lispAbandoned = name;
+		failed(name, remaining, lispUnavailable());
+	}
+
+	private static String lispUnavailable() {
+		return "Lisp interpreter unavailable, a timed out invocation of " + lispAbandoned + " may still be running";
+	}
+
+	/**
+	 * Records the given inputs as failed without running the contribution.
+	 * @param name the name of the contribution
+	 * @param pending the inputs
+	 * @param reason the reason of the failure
+	 */
+	protected void failed(final String name, final List<? extends Results> pending, final String reason) {
+		for (final Results data : pending) {
+			recorded(name, data, putRecord(name, data, new Record(reason, null, 0)));
+		}
+	}
+
 	protected void processXml(final String name, final String xsltResource, final Function<Inputs, List<XmlData>> supplier) {
+		final List<XmlData> pending = pending(name, supplier.apply(inputs));
+		if (pending.isEmpty()) {
+			return;
+		}
+		final XsltTransformer xsltTransformer = this.xsltTransformer.get();
 		try {
-			final Transformer transformer = xsltTransformer.newTransformer(Executor.class.getResourceAsStream(xsltResource));
-			for (final XmlData data : supplier.apply(inputs)) {
-				final InputStream xmlIn = Executor.class.getResourceAsStream(data.xmlIn);
-				if (xmlIn != null) {
-					try {
-						final Document input = xsltTransformer.docBuilder.parse(
-							new InputSource(xmlIn)
-						);
+			Transformer transformer = xsltTransformer.newTransformer(xsltResource);
+			for (final XmlData data : pending) {
+				try {
+					final boolean streaming = data.xmlFile != null || settings.xmlStreaming;
+					final URL location = streaming ? XsltTransformer.locate(data.xmlIn, data.xmlFile) : null;
+					if (data.xmlFile != null && location == null) {
+						failed(name, Collections.singletonList(data), "input file not found: " + data.xmlFile);
+						continue;
+					}
+					final Document input = streaming ? null : xsltTransformer.document(data.xmlIn);
+					if (location != null || input != null) {
 						if (data.parameter != null) {
 							transformer.setParameter(FLAGS, data.parameter);
 						}
-						timedExecution(name, data, () -> {
-							final Document output = xsltTransformer.docBuilder.newDocument();
-							transformer.transform(new DOMSource(input), new DOMResult(output));
-							return putRecord(name, data, new Record(xmlVerifier.verify(output, data), xmlVerifier.toString(output), 0));
-						});
-					} catch (SAXParseException e) {
-						throw new IOException(data.xmlIn, e);
+						final Transformer current = transformer;
+						final boolean completed;
+						if (streaming) {
+							final StreamingXmlVerifier verifier = StreamingXmlVerifier.compile(data);
+							completed = timedExecution(name, data, () -> {
+								final Source source = xsltTransformer.source(location);
+								if (verifier != null) {
+									// the verdict is only known at the end, so failed outputs are capped, too
+									final StreamingXmlVerifier.Handler handler = verifier.newHandler(settings.fullResponses || settings.responseCap == 0 ? Integer.MAX_VALUE : settings.responseCap);
+									current.transform(source, new SAXResult(handler));
+									return new Record(handler.verify(), handler.response(), 0);
+								}
+								// the assertions need the output document
+								final Document output = xsltTransformer.docBuilder.newDocument();
+								current.transform(source, new DOMResult(output));
+								return verified(xmlVerifier, output, data);
+							});
+						} else {
+							completed = timedExecution(name, data, () -> {
+								final Document output = xsltTransformer.docBuilder.newDocument();
+								current.transform(new DOMSource(input), new DOMResult(output));
+								return verified(xmlVerifier, output, data);
+							});
+						}
+						if (!completed) {
+							// the abandoned transformation may still be running
+							transformer = xsltTransformer.newTransformer(xsltResource);
+							xsltTransformer.evict(data.xmlIn);
+						}
 					}
+				} catch (SAXParseException e) {
+					throw new IOException(data.xmlFile != null ? data.xmlFile : data.xmlIn, e);
 				}
 			}
 		} catch (TransformerException | SAXException | IOException e) {
@@ -382,43 +814,70 @@ public class Executor implements Closeable {
 	}
 
 	protected void processPancakes(final String name, final String jsFile) {
+		final List<PancakeFlipperData> pending = pending(name, inputs.pancakes);
+		if (pending.isEmpty()) {
+			return;
+		}
+		JavaScriptRuntime.Session session = null;
 		try {
-			final String script = readFromClasspath(jsFile);
-			javaScript.eval(script); // how many scripts can it take?
-			 
-			for (final PancakeFlipperData data : inputs.pancakes) {
-				timedExecution(name, data, () -> {
-					final Object result = ((Invocable) javaScript).invokeFunction("process",
-						((Invocable) javaScript).invokeFunction(REAL_JS, data.stack)
-					);
-					return putRecord(name, data, new Record(pancakeVerifier.verify(result, data), pancakeVerifier.toString(result), 0));
-				});
+			session = javaScript.open(jsFile);
+			for (final PancakeFlipperData data : pending) {
+				final JavaScriptRuntime.Session current = session;
+				if (!timedExecution(name, data, () -> {
+					final Object result = current.invoke(JS_FUNCTION, current.toJavaScript(data.stack));
+					return verified(pancakeVerifier, result, data);
+				})) {
+					session = renew(session, jsFile);
+				}
 			}
-			
-		} catch (IOException | URISyntaxException | ScriptException e) {
+		} catch (IOException | ScriptException e) {
 			throw new IllegalStateException(e);
+		} finally {
+			if (session != null) {
+				session.close();
+			}
 		}
 	}
 
 	protected void processHappySeven(final String name, final String jsFile) {
+		final List<HappySevenData> pending = pending(name, inputs.happySeven);
+		if (pending.isEmpty()) {
+			return;
+		}
+		JavaScriptRuntime.Session session = null;
 		try {
-			final String script = readFromClasspath(jsFile);
-			javaScript.eval(script); // how many scripts can it take?
-
-			for (final HappySevenData data : inputs.happySeven) {
-				timedExecution(name, data, () -> {
-					final Object result = ((Invocable) javaScript).invokeFunction("process",
-						((Invocable) javaScript).invokeFunction(REAL_JS, data.configuration)
-					);
-					return putRecord(name, data, new Record(happySevenVerifier.verify(result, data), happySevenVerifier.toString(result), 0));
-				});
+			session = javaScript.open(jsFile);
+			for (final HappySevenData data : pending) {
+				final JavaScriptRuntime.Session current = session;
+				if (!timedExecution(name, data, () -> {
+					final Object result = current.invoke(JS_FUNCTION, current.toJavaScript(data.configuration));
+					return verified(happySevenVerifier, result, data);
+				})) {
+					session = renew(session, jsFile);
+				}
 			}
-
-		} catch (IOException | URISyntaxException | ScriptException e) {
+		} catch (IOException | ScriptException e) {
 			throw new IllegalStateException(e);
+		} finally {
+			if (session != null) {
+				session.close();
+			}
 		}
 	}
 
+	/**
+	 * Replaces a session whose engine may still be used by an abandoned invocation.
+	 * @param session the session to discard
+	 * @param jsFile the script of the session
+	 * @return the new session
+	 * @throws IOException in case of error
+	 * @throws ScriptException in case of error
+	 */
+	private JavaScriptRuntime.Session renew(final JavaScriptRuntime.Session session, final String jsFile) throws IOException, ScriptException {
+		session.discard();
+		return javaScript.open(jsFile);
+	}
+
 	protected <T> Optional<T> newInstance(final Class<T> clz, final Class<?> root) {
 		if (clz != null && clz != root) {
 			try {
@@ -438,36 +897,165 @@ public class Executor implements Closeable {
 		return Optional.of(name);
 	}
 
-	protected void timedExecution(final String name, final Results results, final Callable<Record> func) {
-		// best of ten...
-		Record result = null;
-		long min = Long.MAX_VALUE;
-		for (int i = 0; i < 10; i++) {
-			final long then = System.nanoTime();
-			try {
-				result = func.call();
-				final long now = System.nanoTime() - then;
-				if (now < min) {
-					min = now;
-				}
-			} catch (Throwable t) {
-				final String message = t.getMessage() == null ? t.getClass().getName() : t.getMessage();
-				final Record failure = new Record(message, null, System.nanoTime() - then);
-				failure.ok = false;
-				putRecord(name, results, failure);
-				return;
+	/**
+	 * Measures the given function and records its result. If a time budget applies,
+	 * the function is run on a supervised thread and abandoned if an invocation
+	 * exceeds the budget. Only the record returned by the measurement is kept,
+	 * so the function must not keep records itself.
+	 * @param name the name of the contribution
+	 * @param results the input data
+	 * @param func the function processing the input and returning the record of the result
+	 * @return {@code true} if the function completed, {@code false} if it was abandoned
+	 */
+	protected boolean timedExecution(final String name, final Results results, final Callable<Record> func) {
+		if (timedSlots == null) {
+			return doTimedExecution(name, results, func);
+		}
+		timedSlots.acquireUninterruptibly();
+		try {
+			return doTimedExecution(name, results, func);
+		} finally {
+			timedSlots.release();
+		}
+	}
+
+	private boolean doTimedExecution(final String name, final Results results, final Callable<Record> func) {
+		final long then = System.nanoTime();
+		final long budget = TimeUnit.MILLISECONDS.toNanos(budget(results));
+		final AtomicLong deadline = new AtomicLong(then + budget);
+		final ResourceSampler sampler = new ResourceSampler();
+		try {
+			final Record record;
+			if (budget > 0) {
+				final Callable<Record> watched = () -> {
+					deadline.set(System.nanoTime() + budget);
+					return func.call();
+				};
+				record = supervisor.get().call(() -> settings.measurement.measure(watched, sampler), deadline::get);
+			} else {
+				record = settings.measurement.measure(func, sampler);
+			}
+			if (record != null) {
+				// only kept once measured, an abandoned invocation never gets here
+				putRecord(name, results, record);
+				sampler.fill(record);
+				cache(name, results, record);
+				recorded(name, results, record);
 			}
+		} catch (Supervisor.Timeout t) {
+			final Record failure = new Record("timed out after " + TimeUnit.NANOSECONDS.toMillis(budget) + "ms", null, System.nanoTime() - deadline.get() + budget);
+			failure.timedOut = true;
+			failure.diagnostics = t.getThreadDump();
+			recorded(name, results, putRecord(name, results, failure));
+			return false;
+		} catch (Throwable t) {
+			final String message = t.getMessage() == null ? t.getClass().getName() : t.getMessage();
+			final Record failure = new Record(message, null, System.nanoTime() - then);
+			failure.ok = false;
+			recorded(name, results, putRecord(name, results, failure));
 		}
+		return true;
+	}
+
+	/**
+	 * Called once the record of a contribution for an input is final,
+	 * i.e. after all of its measured invocations.
+	 * @param name the name of the contribution
+	 * @param results the input data
+	 * @param record the final record
+	 */
+	protected void recorded(final String name, final Results results, final Record record) {
+		// nothing to do by default
+	}
+
+	/**
+	 * Returns the name of the challenge the given input data belongs to.
+	 * @param results the input data
+	 * @return the challenge name as used by {@link Inputs#challenges()}
+	 */
+	protected String challenge(final Results results) {
+		final String result = challenges.get(results);
 		if (result != null) {
-			result.millis = min / 1000000d;
+			return result;
 		}
+		// the input belongs to a list which has been materialized already
+		for (final Map.Entry<String, List<? extends Results>> entry : inputs.challenges().entrySet()) {
+			final List<? extends Results> list = entry.getValue();
+			if (!(list instanceof LazyList) || ((LazyList<?>) list).isLoaded()) {
+				if (list.stream().anyMatch(data -> data == results)) {
+					list.forEach(data -> challenges.put(data, entry.getKey()));
+					return entry.getKey();
+				}
+			}
+		}
+		return null;
 	}
 
+	/**
+	 * Returns the time budget per invocation for the given input. The budget
+	 * of the input takes precedence over the budget of the challenge, which
+	 * in turn takes precedence over the default budget of the settings.
+	 * @param results the input data
+	 * @return the budget in milliseconds, {@code 0} for no budget
+	 */
+	protected long budget(final Results results) {
+		if (results.timeout != null) {
+			return results.timeout.longValue();
+		}
+		if (inputs.timeouts != null) {
+			final Long timeout = inputs.timeouts.get(challenge(results));
+			if (timeout != null) {
+				return timeout.longValue();
+			}
+		}
+		return settings.timeout;
+	}
+
+	/**
+	 * Verifies a response and creates its record. The response of a passed
+	 * challenge is capped as configured in the settings and scored by the
+	 * verifier, the response of a failed challenge is kept completely.
+	 * @param <I> the response type
+	 * @param <D> the data type
+	 * @param verifier the verifier of the challenge
+	 * @param response the response of the contribution
+	 * @param data the input data
+	 * @return the record, never {@code null}
+	 */
+	protected <I, D extends Results> Record verified(final Verifier<I, D> verifier, final I response, final D data) {
+		final String reason = verifier.verify(response, data);
+		if (reason != null) {
+			return new Record(reason, verifier.toString(response), 0);
+		}
+		final Record result = settings.responseCap > 0 && !settings.fullResponses
+			? new Record(null, verifier.toString(response, settings.responseCap), 0)
+			: new Record(null, verifier.toString(response), 0);
+		verifier.score(response, data, result);
+		return result;
+	}
+
+	/**
+	 * Keeps the record of a contribution in the input data, unless the settings say
+	 * not to keep records. A timed out record is never replaced.
+	 * @param name the name of the contribution
+	 * @param results the input data
+	 * @param record the record
+	 * @return the kept record
+	 */
 	protected Record putRecord(final String name, final Results results, final Record record) {
-		if (results.results == null) {
-			results.results = new HashMap<>();
+		if (!settings.keepRecords) {
+			return record;
+		}
+		synchronized (results) {
+			if (results.results == null) {
+				results.results = new ConcurrentHashMap<>();
+			}
+			final Record previous = results.results.get(name);
+			if (previous != null && previous.timedOut) {
+				return previous;
+			}
+			results.results.put(name, record);
 		}
-		results.results.put(name, record);
 		return record;
 	}
 
@@ -0,0 +1,389 @@
+package de.engehausen.cc2;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.engehausen.cc2.Hamilton.Node;
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.reference.BusyBeeSolver;
+import de.engehausen.cc2.reference.BusyBeeSolver.Solution;
+import de.engehausen.cc2.reference.PathBound;
+
+/**
+ * Generates flower fields of the busy bee challenge; to be run on the command line.
+ * <p>Each field contains a random path through all of its flowers, so a path is known
+ * to exist. The fields are built after one of the following models:</p>
+ * <ul>
+ * <li>{@link Model#GEOMETRIC}: flowers at random positions, each connected to its nearest
+ * neighbors, with the distances as travel times (see {@link Hamilton#time(Node, Node)})</li>
+ * <li>{@link Model#GRID}: flowers on a slightly distorted grid, some of the connections
+ * between neighbors blocked</li>
+ * <li>{@link Model#SPARSE}: random connections with random travel times, about
+ * {@value #SPARSE_DEGREE} per flower</li>
+ * </ul>
+ * <p>For each field two inputs are generated: a tight one whose time limit is that of the
+ * fastest known path, and an infeasible one with a time limit below a lower bound of the
+ * fastest path. Fields of up to {@value #MAX_SOLVED} flowers are solved by the
+ * {@link BusyBeeSolver}; for larger ones, the fastest known path is the generated one and
+ * the lower bound is computed by {@link PathBound}.</p>
+ */
+public class FlowerFields {
+
+	/**
+	 * The model of a flower field.
+	 */
+	public enum Model {
+		/** flowers at random positions, connected to their nearest neighbors */
+		GEOMETRIC,
+		/** flowers on a distorted grid */
+		GRID,
+		/** random connections with random travel times */
+		SPARSE
+	}
+
+	/** the maximal number of flowers of a field which is solved by the reference solver */
+	public static final int MAX_SOLVED = 64;
+
+	private static final int SCALE = 100;
+	private static final int NEIGHBORS = 4;
+	private static final int BLOCKED_PERCENT = 30;
+	private static final int SPARSE_DEGREE = 3;
+	private static final int MAX_SPARSE_TIME = 200;
+
+	private final Random random;
+	private final BusyBeeSolver solver;
+
+	/**
+	 * Creates the generator.
+	 * @param seed the seed of the random numbers
+	 * @param solver the solver of small fields, may be {@code null} to never solve fields
+	 */
+	public FlowerFields(final long seed, final BusyBeeSolver solver) {
+		this.random = new Random(seed);
+		this.solver = solver;
+	}
+
+	/**
+	 * A generated flower field.
+	 */
+	public static class Field {
+
+		/** the connections between the flowers */
+		public List<Connection> connections;
+		/** the time of the fastest known path */
+		public int upper;
+		/** a time below which no path exists */
+		public int lower;
+		/** flag indicating that the fastest known path is the fastest path */
+		public boolean solved;
+
+		/**
+		 * Creates the field.
+		 * @param connections the connections between the flowers
+		 * @param upper the time of the fastest known path
+		 */
+		public Field(final List<Connection> connections, final int upper) {
+			this.connections = connections;
+			this.upper = upper;
+		}
+
+		/**
+		 * Returns the input with the time limit of the fastest known path.
+		 * @return the input data, never {@code null}
+		 */
+		public BusyBeeData tight() {
+			return new BusyBeeData(connections, upper, false);
+		}
+
+		/**
+		 * Returns the input with a time limit below the fastest path.
+		 * @return the input data, never {@code null}
+		 */
+		public BusyBeeData infeasible() {
+			return new BusyBeeData(connections, lower - 1, true);
+		}
+
+	}
+
+	/**
+	 * Generates a flower field.
+	 * @param model the model of the field, must not be {@code null}
+	 * @param size the number of flowers, at least two
+	 * @return the field, never {@code null}
+	 */
+	public Field field(final Model model, final int size) {
+		final List<int[]> edges = new ArrayList<>();
+		final int upper;
+		switch (model) {
+			case GEOMETRIC:
+				upper = geometric(size, edges);
+				break;
+			case GRID:
+				upper = grid(size, edges);
+				break;
+			default:
+				upper = sparse(size, edges);
+				break;
+		}
+		// neither the names nor the order of the connections give the path away
+		final List<Integer> names = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			names.add(Integer.valueOf(i));
+		}
+		Collections.shuffle(names, random);
+		Collections.shuffle(edges, random);
+		final List<Connection> connections = new ArrayList<>(edges.size());
+		for (final int[] edge : edges) {
+			connections.add(random.nextBoolean()
+				? new Connection("n" + names.get(edge[0]), "n" + names.get(edge[1]), edge[2])
+				: new Connection("n" + names.get(edge[1]), "n" + names.get(edge[0]), edge[2]));
+		}
+		final Field result = new Field(connections, upper);
+		final BusyBeeGraph graph = new BusyBeeGraph(connections);
+		result.lower = PathBound.of(graph, upper);
+		if (solver != null && size <= MAX_SOLVED) {
+			final Solution solution = solver.solve(graph);
+			if (solution.path != null) {
+				result.upper = Math.min(result.upper, solution.time);
+			}
+			if (solution.optimal) {
+				result.lower = result.upper;
+				result.solved = true;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Places the flowers at random positions and connects each to its nearest neighbors
+	 * and along a path of nearest neighbors.
+	 * @return the time of the path
+	 */
+	protected int geometric(final int size, final List<int[]> edges) {
+		final int side = (int) (SCALE * Math.sqrt(size));
+		final Node[] nodes = new Node[size];
+		for (int i = 0; i < size; i++) {
+			nodes[i] = node(random.nextInt(side), random.nextInt(side));
+		}
+		final Set<Long> known = new HashSet<>();
+		final boolean[] visited = new boolean[size];
+		int result = 0;
+		int last = 0;
+		visited[last] = true;
+		for (int count = 1; count < size; count++) {
+			int next = -1;
+			for (int i = 0; i < size; i++) {
+				if (!visited[i] && (next < 0 || distance(nodes[last], nodes[i]) < distance(nodes[last], nodes[next]))) {
+					next = i;
+				}
+			}
+			visited[next] = true;
+			result += connect(last, next, time(nodes[last], nodes[next]), edges, known);
+			last = next;
+		}
+		final int[] nearest = new int[NEIGHBORS];
+		for (int i = 0; i < size; i++) {
+			Arrays.fill(nearest, -1);
+			for (int j = 0; j < size; j++) {
+				if (j == i) {
+					continue;
+				}
+				// insertion into the nearest neighbors found so far
+				int position = NEIGHBORS;
+				while (position > 0 && (nearest[position - 1] < 0 || distance(nodes[i], nodes[j]) < distance(nodes[i], nodes[nearest[position - 1]]))) {
+					position--;
+				}
+				if (position < NEIGHBORS) {
+					System.arraycopy(nearest, position, nearest, position + 1, NEIGHBORS - position - 1);
+					nearest[position] = j;
+				}
+			}
+			for (final int j : nearest) {
+				if (j >= 0) {
+					connect(i, j, time(nodes[i], nodes[j]), edges, known);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Places the flowers on a distorted grid and connects neighbors, except for
+	 * some blocked ones; the connections of a path snaking through the rows are
+	 * never blocked.
+	 * @return the time of the path
+	 */
+	protected int grid(final int size, final List<int[]> edges) {
+		final int width = (int) Math.ceil(Math.sqrt(size));
+		final Node[] nodes = new Node[size];
+		for (int i = 0; i < size; i++) {
+			nodes[i] = node(column(i, width) * SCALE + random.nextInt(SCALE / 2), (i / width) * SCALE + random.nextInt(SCALE / 2));
+		}
+		final Set<Long> known = new HashSet<>();
+		int result = 0;
+		for (int i = 1; i < size; i++) {
+			result += connect(i - 1, i, time(nodes[i - 1], nodes[i]), edges, known);
+		}
+		// index of the flower in each grid cell
+		final int[] cells = new int[width * width];
+		Arrays.fill(cells, -1);
+		for (int i = 0; i < size; i++) {
+			cells[(i / width) * width + column(i, width)] = i;
+		}
+		for (int cell = 0; cell < cells.length; cell++) {
+			final int a = cells[cell];
+			if (a < 0) {
+				continue;
+			}
+			if (cell % width < width - 1) {
+				neighbor(a, cells[cell + 1], nodes, edges, known);
+			}
+			if (cell + width < cells.length) {
+				neighbor(a, cells[cell + width], nodes, edges, known);
+			}
+		}
+		return result;
+	}
+
+	private void neighbor(final int a, final int b, final Node[] nodes, final List<int[]> edges, final Set<Long> known) {
+		if (b >= 0 && random.nextInt(100) >= BLOCKED_PERCENT) {
+			connect(a, b, time(nodes[a], nodes[b]), edges, known);
+		}
+	}
+
+	/**
+	 * Connects the flowers along a path and at random, with random travel times.
+	 * @return the time of the path
+	 */
+	protected int sparse(final int size, final List<int[]> edges) {
+		final Set<Long> known = new HashSet<>();
+		int result = 0;
+		for (int i = 1; i < size; i++) {
+			result += connect(i - 1, i, 1 + random.nextInt(MAX_SPARSE_TIME), edges, known);
+		}
+		final long total = Math.min((long) size * SPARSE_DEGREE / 2, (long) size * (size - 1) / 2);
+		while (edges.size() < total) {
+			connect(random.nextInt(size), random.nextInt(size), 1 + random.nextInt(MAX_SPARSE_TIME), edges, known);
+		}
+		return result;
+	}
+
+	private static int connect(final int a, final int b, final int time, final List<int[]> edges, final Set<Long> known) {
+		if (a != b && known.add(Long.valueOf((long) Math.min(a, b) << 32 | Math.max(a, b)))) {
+			edges.add(new int[] { a, b, time });
+		}
+		return time;
+	}
+
+	private static int column(final int index, final int width) {
+		final int row = index / width;
+		return row % 2 == 0 ? index % width : width - 1 - index % width;
+	}
+
+	private static Node node(final int x, final int y) {
+		final Node result = new Node();
+		result.x = x;
+		result.y = y;
+		return result;
+	}
+
+	private static long distance(final Node a, final Node b) {
+		return (long) (a.x - b.x) * (a.x - b.x) + (long) (a.y - b.y) * (a.y - b.y);
+	}
+
+	private static int time(final Node a, final Node b) {
+		return Math.max(1, Hamilton.time(a, b));
+	}
+
+	/**
+	 * Generates flower fields into an inputs file. The inputs are written one by one,
+	 * so fields of thousands of flowers do not have to be held in memory together;
+	 * a target file ending in {@code .gz} is compressed.
+	 * @param args the arguments, either exactly one argument containing a whitespace-separated
+	 * string, or the separate arguments: the target file, the comma-separated numbers of flowers
+	 * (e.g. {@code 20,500,5000}), and optionally the comma-separated models (default: all), the
+	 * seed (default 1) and the time limit for solving a field in seconds (default 10).
+	 * <p>This is normally run through Maven using {@code mvn -Pflowerfields ...}</p>
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final String[] params = args.length == 1 ? args[0].split(" ") : args;
+		if (params.length < 2 || params[0].startsWith("$") || params[1].startsWith("$")) {
+			System.err.println("*** please specify the target file and the numbers of flowers, e.g. -Dout=target/bees.json.gz -Dsizes=20,500,5000");
+			return;
+		}
+		final Path file = Paths.get(params[0]);
+		final List<Model> models = new ArrayList<>();
+		if (params.length > 2 && !params[2].startsWith("$")) {
+			for (final String model : params[2].split(",")) {
+				models.add(Model.valueOf(model.trim().toUpperCase(Locale.ROOT)));
+			}
+		} else {
+			models.addAll(Arrays.asList(Model.values()));
+		}
+		final long seed = params.length > 3 && !params[3].startsWith("$") ? Long.parseLong(params[3]) : 1L;
+		final long seconds = params.length > 4 && !params[4].startsWith("$") ? Long.parseLong(params[4]) : 10L;
+		final FlowerFields generator = new FlowerFields(seed, new BusyBeeSolver(ForkJoinPool.commonPool(), TimeUnit.SECONDS.toMillis(seconds)));
+		final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		int count = 0;
+		try (final OutputStream out = output(file);
+			final JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+			json.writeStartObject();
+			json.writeArrayFieldStart(Inputs.BEE_GRAPHS);
+			for (final String size : params[1].split(",")) {
+				for (final Model model : models) {
+					final int flowers = Integer.parseInt(size.trim());
+					final Field field = generator.field(model, flowers);
+					final String name = String.format("%s, %d flowers", model.name().toLowerCase(Locale.ROOT), Integer.valueOf(flowers));
+					final BusyBeeData tight = field.tight();
+					tight.label = name + ", tight";
+					json.writeObject(tight);
+					final BusyBeeData infeasible = field.infeasible();
+					infeasible.label = name + ", infeasible";
+					json.writeObject(infeasible);
+					count += 2;
+					System.out.printf("%s: %d connections, path %d%s, no path below %d%n",
+						name,
+						Integer.valueOf(field.connections.size()),
+						Integer.valueOf(field.upper),
+						field.solved ? " (fastest)" : "",
+						Integer.valueOf(field.lower));
+				}
+			}
+			json.writeEndArray();
+			json.writeEndObject();
+		}
+		System.out.printf("generated %d inputs into %s%n", Integer.valueOf(count), file);
+	}
+
+	private static OutputStream output(final Path file) throws IOException {
+		final OutputStream result = new BufferedOutputStream(Files.newOutputStream(file));
+		return file.toString().endsWith(".gz") ? new GZIPOutputStream(result) : result;
+	}
+
+}
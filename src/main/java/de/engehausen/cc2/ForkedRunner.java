@@ -0,0 +1,281 @@
+package de.engehausen.cc2;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.engehausen.cc2.api.AnytimeBusyBeeFunction;
+import de.engehausen.cc2.api.BusyBeeFunction;
+import de.engehausen.cc2.api.BusyBeeGraphFunction;
+import de.engehausen.cc2.api.Contribution;
+import de.engehausen.cc2.api.EditDistanceFunction;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.InputsLoader;
+import de.engehausen.cc2.data.LazyList;
+import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Runs contributions in child JVMs, one per contribution.
+ * The child streams each final record as a line prefixed with
+ * {@link #PREFIX} to its standard output; the parent merges the
+ * records into its inputs. Other output of the child is passed on.
+ * Inputs the child did not report on are recorded as failures once
+ * the child terminates, whatever its exit code.
+ */
+public class ForkedRunner {
+
+	/** {@code -contribution}: the class name of the {@code package-info} of the contribution to run in the child */
+	public static final String ARG_CONTRIBUTION = "-contribution";
+	/** the prefix of lines carrying a record */
+	public static final String PREFIX = "@cc2:record ";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper(JsonFactory.builder().enable(JsonWriteFeature.ESCAPE_NON_ASCII).build())
+		.setSerializationInclusion(Include.NON_NULL);
+
+	private final Executor executor;
+	private final Inputs inputs;
+	private final Settings settings;
+	private final Path inputsFile;
+	private final boolean temporary;
+
+	/**
+	 * Creates the runner. The child JVMs read their inputs from the file the inputs
+	 * were loaded from (see {@link Settings#inputsFile}), each materializing only the
+	 * challenges of its contribution. Inputs not loaded from a file are written to a
+	 * temporary file, which is removed by {@link #close()}.
+	 * @param executor the executor to merge the records into, must not be {@code null}
+	 * @param inputs the inputs, must not be {@code null}
+	 * @param settings the settings, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	public ForkedRunner(final Executor executor, final Inputs inputs, final Settings settings) throws IOException {
+		this.executor = executor;
+		this.inputs = inputs;
+		this.settings = settings;
+		this.temporary = settings.inputsFile == null;
+		if (temporary) {
+			this.inputsFile = Files.createTempFile("cc2-inputs", ".json");
+			MAPPER.writeValue(inputsFile.toFile(), inputs);
+		} else {
+			this.inputsFile = settings.inputsFile;
+		}
+	}
+
+	/**
+	 * Removes the temporary inputs file, if any.
+	 */
+	public void close() {
+		if (temporary) {
+			try {
+				Files.deleteIfExists(inputsFile);
+			} catch (IOException e) {
+				// just give up...
+			}
+		}
+	}
+
+	/**
+	 * Runs the given contribution in a child JVM and merges its records.
+	 * @param clz the {@code package-info} class of the contribution, must not be {@code null}
+	 */
+	public void run(final Class<?> clz) {
+		final List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(settings.forkOptions);
+		command.add("-cp");
+		command.add(classpath());
+		command.add(ForkedRunner.class.getName());
+		command.add(Main.ARG_INPUTS + "=" + inputsFile);
+		command.add(ARG_CONTRIBUTION + "=" + clz.getName());
+		command.addAll(settings.forkArguments);
+		final Set<Results> received = Collections.newSetFromMap(new IdentityHashMap<>());
+		// the inputs of the contribution's challenges are kept while the child reports on them
+		final List<LazyList<?>> acquired = new ArrayList<>();
+		for (final String challenge : declared(clz.getAnnotation(Contribution.class))) {
+			final List<? extends Results> list = inputs.challenges().get(challenge);
+			if (list instanceof LazyList) {
+				((LazyList<?>) list).acquire();
+				acquired.add((LazyList<?>) list);
+			}
+		}
+		try {
+			run(clz, command, received);
+		} finally {
+			acquired.forEach(LazyList::release);
+		}
+	}
+
+	private void run(final Class<?> clz, final List<String> command, final Set<Results> received) {
+		final int exitCode;
+		try {
+			final Process process = new ProcessBuilder(command)
+				.redirectError(ProcessBuilder.Redirect.INHERIT)
+				.start();
+			try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					if (line.startsWith(PREFIX)) {
+						final Message message = MAPPER.readValue(line.substring(PREFIX.length()), Message.class);
+						final Results data = inputs.challenges().get(message.challenge).get(message.index);
+						executor.putRecord(message.name, data, message.record);
+						executor.recorded(message.name, data, message.record);
+						received.add(data);
+					} else {
+						System.out.println(line);
+					}
+				}
+			}
+			exitCode = process.waitFor();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		// a child may also exit normally before it is done, e.g. from the Lisp debugger hook
+		final String reason = "no record received, forked JVM exited with code " + exitCode;
+		final String name = executor.getName(clz);
+		final Map<String, List<? extends Results>> challenges = inputs.challenges();
+		for (final String challenge : declared(clz.getAnnotation(Contribution.class))) {
+			for (final Results data : challenges.getOrDefault(challenge, Collections.emptyList())) {
+				if (!received.contains(data)) {
+					final Record failure = new Record(reason, null, 0);
+					executor.putRecord(name, data, failure);
+					executor.recorded(name, data, failure);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the names of the challenges the given contribution takes part in.
+	 * @param contribution the contribution
+	 * @return the challenge names as used by {@link Inputs#challenges()}
+	 */
+	protected static List<String> declared(final Contribution contribution) {
+		final List<String> result = new ArrayList<>(8);
+		if (contribution.minimalEditDistance() != EditDistanceFunction.class) {
+			result.add(Inputs.EDIT_DISTANCES);
+		}
+		if (contribution.busyBee() != BusyBeeFunction.class
+			|| contribution.busyBeeGraph() != BusyBeeGraphFunction.class
+			|| contribution.anytimeBusyBee() != AnytimeBusyBeeFunction.class) {
+			result.add(Inputs.BEE_GRAPHS);
+		}
+		if (!contribution.pancakeFlipper().isEmpty()) {
+			result.add(Inputs.PANCAKES);
+		}
+		if (!contribution.happySeven().isEmpty()) {
+			result.add(Inputs.HAPPY_SEVEN);
+		}
+		if (!contribution.reversePolishNotation().isEmpty()) {
+			result.add(Inputs.NOTATION_EXPRESSIONS);
+		}
+		if (!contribution.huffmanCoding().isEmpty()) {
+			result.add(Inputs.HUFFMAN_STRINGS);
+		}
+		if (!contribution.xsltEasy().isEmpty()) {
+			result.add(Inputs.XML_EASY);
+		}
+		if (!contribution.xsltHard().isEmpty()) {
+			result.add(Inputs.XML_HARD);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the class path of the contributions. When run through Maven,
+	 * this is the class path of the context class loader rather than the
+	 * class path the JVM was started with.
+	 * @return the class path
+	 */
+	protected static String classpath() {
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if (loader instanceof URLClassLoader) {
+			final List<String> entries = new ArrayList<>();
+			for (final URL url : ((URLClassLoader) loader).getURLs()) {
+				if ("file".equals(url.getProtocol())) {
+					try {
+						entries.add(Paths.get(url.toURI()).toString());
+					} catch (URISyntaxException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+			if (!entries.isEmpty()) {
+				return String.join(File.pathSeparator, entries);
+			}
+		}
+		return System.getProperty("java.class.path");
+	}
+
+	/**
+	 * Runs a single contribution and streams its records to {@code System.out}.
+	 * The arguments are those of {@link Main} plus {@link #ARG_CONTRIBUTION}.
+	 * @param args command line arguments
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final Map<String, String> parameters = Main.parameters(args);
+		final Inputs inputs = InputsLoader.load(Paths.get(parameters.get(Main.ARG_INPUTS)));
+		final Class<?> clz = Class.forName(parameters.get(ARG_CONTRIBUTION), true, Thread.currentThread().getContextClassLoader());
+		final Settings settings = Main.settings(parameters);
+		// the records are streamed to the parent
+		settings.keepRecords = false;
+		try (final Executor executor = new Executor(inputs, settings) {
+			@Override
+			protected void recorded(final String name, final Results results, final Record record) {
+				final Message message = new Message();
+				message.challenge = challenge(results);
+				message.index = inputs.challenges().get(message.challenge).indexOf(results);
+				message.name = name;
+				message.record = record;
+				try {
+					final String line = PREFIX + MAPPER.writeValueAsString(message);
+					synchronized (System.out) {
+						System.out.println(line);
+						System.out.flush();
+					}
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}) {
+			executor.run(Collections.singletonList(clz));
+		}
+	}
+
+	/**
+	 * A record as streamed from the child to the parent.
+	 */
+	public static class Message {
+		/** the challenge name */
+		public String challenge;
+		/** the index of the input in the list of the challenge */
+		public int index;
+		/** the name of the contribution */
+		public String name;
+		/** the record */
+		public Record record;
+	}
+
+}
@@ -105,14 +105,21 @@ public class Hamilton {
 
 	private static Collection<Connection> times(final Map<String, Node> nodes, final Collection<Connection> values) {
 		for (Connection c : values) {
-			final Node a = nodes.get(c.a);
-			final Node b = nodes.get(c.b);
-			double x = Math.sqrt((a.x - b.x) * (a.x - b.x) + (a.y - b.y) * (a.y - b.y));
-			c.time = (int) x;
+			c.time = time(nodes.get(c.a), nodes.get(c.b));
 		}
 		return values;
 	}
 
+	/**
+	 * Returns the travel time between two flowers, which is their distance.
+	 * @param a the first flower
+	 * @param b the second flower
+	 * @return the travel time
+	 */
+	public static int time(final Node a, final Node b) {
+		return (int) Math.sqrt((double) (a.x - b.x) * (a.x - b.x) + (double) (a.y - b.y) * (a.y - b.y));
+	}
+
 	public static class Node {
 		public String name;
 		public int x;
@@ -0,0 +1,211 @@
+package de.engehausen.cc2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+import com.google.common.io.Resources;
+
+/**
+ * Runtime for the JavaScript contributions. It keeps a pool of Nashorn
+ * engines; each contribution script is compiled only once per engine.
+ * A contribution is evaluated into a script context of its own, so the
+ * globals of one contribution are never visible to another one and are
+ * released once the contribution is done.
+ */
+public class JavaScriptRuntime {
+
+	private static final String REAL_JS = "toRealJavaScript";
+	private static final String HELPER = "function " + REAL_JS + "(i) { return Java.from(i); }";
+	private static final long WAIT_MILLIS = 100;
+
+	private final BlockingQueue<Engine> idle;
+	private final AtomicInteger creatable;
+	private final Map<String, String> sources;
+
+	/**
+	 * Creates the runtime.
+	 * @param size the maximal number of engines, i.e. the number of contributions that can run at the same time
+	 */
+	public JavaScriptRuntime(final int size) {
+		idle = new ArrayBlockingQueue<>(Math.max(1, size));
+		creatable = new AtomicInteger(Math.max(1, size));
+		sources = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Opens a session for the given contribution script. The session holds
+	 * an engine of the pool exclusively until it is closed.
+	 * @param resource the resource name of the script, e.g. {@code /examples/pancakeDemo.js}.
+	 * @return the session, never {@code null}.
+	 * @throws IOException in case the script cannot be read
+	 * @throws ScriptException in case the script cannot be compiled or evaluated
+	 */
+	public Session open(final String resource) throws IOException, ScriptException {
+		final Engine engine = borrow();
+		try {
+			return new Session(engine, resource);
+		} catch (IOException | ScriptException | RuntimeException e) {
+			idle.offer(engine);
+			throw e;
+		}
+	}
+
+	protected Engine borrow() {
+		Engine engine = idle.poll();
+		while (engine == null) {
+			for (int remaining = creatable.get(); remaining > 0; remaining = creatable.get()) {
+				if (creatable.compareAndSet(remaining, remaining - 1)) {
+					try {
+						return new Engine();
+					} catch (RuntimeException | Error e) {
+						// give the slot back, so that the pool does not shrink
+						creatable.incrementAndGet();
+						throw e;
+					}
+				}
+			}
+			try {
+				// a slot given back by a failed creation is picked up on the next round
+				engine = idle.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+		return engine;
+	}
+
+	protected String source(final String resource) throws IOException {
+		String result = sources.get(resource);
+		if (result == null) {
+			final URL url = JavaScriptRuntime.class.getResource(resource);
+			if (url == null) {
+				throw new IOException("resource not found: " + resource);
+			}
+			result = Resources.toString(url, StandardCharsets.UTF_8);
+			sources.put(resource, result);
+		}
+		return result;
+	}
+
+	/**
+	 * A pooled engine with the scripts compiled for it.
+	 * Compiled scripts are bound to the engine which compiled them.
+	 */
+	protected class Engine {
+
+		private final ScriptEngine engine;
+		private final ScriptContext defaultContext;
+		private final CompiledScript helper;
+		private final Map<String, CompiledScript> compiled;
+
+		Engine() {
+			engine = new ScriptEngineManager().getEngineByName("nashorn");
+			defaultContext = engine.getContext();
+			compiled = new HashMap<>();
+			try {
+				helper = ((Compilable) engine).compile(HELPER);
+			} catch (ScriptException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		CompiledScript compile(final String resource) throws IOException, ScriptException {
+			CompiledScript result = compiled.get(resource);
+			if (result == null) {
+				engine.put(ScriptEngine.FILENAME, resource);
+				result = ((Compilable) engine).compile(source(resource));
+				compiled.put(resource, result);
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * A contribution script evaluated in its own script context.
+	 */
+	public class Session implements Closeable {
+
+		private final Engine engine;
+		private boolean closed;
+
+		Session(final Engine engine, final String resource) throws IOException, ScriptException {
+			this.engine = engine;
+			final CompiledScript script = engine.compile(resource);
+			final ScriptContext context = new SimpleScriptContext();
+			context.setBindings(engine.engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+			engine.helper.eval(context);
+			script.eval(context);
+			engine.engine.setContext(context);
+		}
+
+		/**
+		 * Invokes a top-level function of the contribution script.
+		 * @param function the name of the function
+		 * @param args the arguments
+		 * @return the result of the function
+		 * @throws ScriptException in case of error
+		 * @throws NoSuchMethodException in case the function does not exist
+		 */
+		public Object invoke(final String function, final Object... args) throws ScriptException, NoSuchMethodException {
+			return ((Invocable) engine.engine).invokeFunction(function, args);
+		}
+
+		/**
+		 * Converts a Java object (such as a list) into a JavaScript array.
+		 * @param object the object to convert
+		 * @return the JavaScript array
+		 * @throws ScriptException in case of error
+		 * @throws NoSuchMethodException in case of error
+		 */
+		public Object toJavaScript(final Object object) throws ScriptException, NoSuchMethodException {
+			return invoke(REAL_JS, object);
+		}
+
+		/**
+		 * Drops the context of the contribution and returns the engine to the pool.
+		 * Does nothing if the session was discarded.
+		 */
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				engine.engine.setContext(engine.defaultContext);
+				idle.offer(engine);
+			}
+		}
+
+		/**
+		 * Discards the engine of the session instead of returning it to the pool,
+		 * e.g. because an abandoned invocation may still be running on it.
+		 * The pool may create a new engine instead.
+		 */
+		public void discard() {
+			if (!closed) {
+				closed = true;
+				creatable.incrementAndGet();
+			}
+		}
+
+	}
+
+}
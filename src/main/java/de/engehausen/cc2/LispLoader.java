@@ -0,0 +1,140 @@
+package de.engehausen.cc2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.armedbear.lisp.Interpreter;
+import org.armedbear.lisp.Lisp;
+import org.armedbear.lisp.LispObject;
+import org.armedbear.lisp.Packages;
+import org.armedbear.lisp.SimpleString;
+import org.armedbear.lisp.Symbol;
+import org.armedbear.lisp.Version;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Loads Lisp scripts from the classpath into the interpreter.
+ * Scripts are loaded from memory; no temporary copy of the script is needed.
+ * If a cache folder is given, each script is compiled into an ABCL FASL
+ * named after the SHA-256 hash of the ABCL version and its source. Subsequent runs
+ * load the compiled FASL directly and skip reading and compiling the unchanged source;
+ * FASLs compiled by another ABCL version are not loaded.
+ */
+public class LispLoader {
+
+	private static final String LISP_USER_SPACE = "CL-USER";
+	private static final String VAR_SOURCE = "*CC2-SOURCE*";
+	private static final String VAR_FILE = "*CC2-FILE*";
+	private static final String VAR_OUTPUT = "*CC2-OUTPUT*";
+	private static final String FASL = ".abcl";
+	private static final String LISP = ".lisp";
+
+	private final Interpreter interpreter;
+	private final Path cacheFolder;
+	private final Symbol source;
+	private final Symbol file;
+	private final Symbol output;
+
+	/**
+	 * Creates the loader.
+	 * @param interpreter the interpreter to load the scripts into, must not be {@code null}.
+	 * @param cacheFolder the folder for the compiled scripts, or {@code null} to not compile.
+	 */
+	public LispLoader(final Interpreter interpreter, final Path cacheFolder) {
+		this.interpreter = interpreter;
+		this.cacheFolder = cacheFolder;
+		interpreter.eval(String.format("(progn (defvar %s) (defvar %s) (defvar %s))", VAR_SOURCE, VAR_FILE, VAR_OUTPUT));
+		source = Packages.findPackage(LISP_USER_SPACE).findAccessibleSymbol(VAR_SOURCE);
+		file = Packages.findPackage(LISP_USER_SPACE).findAccessibleSymbol(VAR_FILE);
+		output = Packages.findPackage(LISP_USER_SPACE).findAccessibleSymbol(VAR_OUTPUT);
+	}
+
+	/**
+	 * Loads the given script resource.
+	 * @param resource the resource name, e.g. {@code /examples/rpnDemo.lisp}.
+	 * @return the result of the load operation
+	 * @throws IOException in case of error
+	 */
+	public LispObject load(final String resource) throws IOException {
+		final byte[] bytes = read(resource);
+		if (cacheFolder != null) {
+			final Path fasl = cacheFolder.resolve(key(bytes) + FASL);
+			if (Files.exists(fasl) || compile(bytes, fasl)) {
+				file.setSymbolValue(new SimpleString(fasl.toString()));
+				return interpreter.eval("(load " + VAR_FILE + ")");
+			}
+		}
+		source.setSymbolValue(new SimpleString(new String(bytes, StandardCharsets.UTF_8)));
+		try {
+			return interpreter.eval("(with-input-from-string (stream " + VAR_SOURCE + ") (load stream))");
+		} finally {
+			source.setSymbolValue(Lisp.NIL);
+		}
+	}
+
+	/**
+	 * Compiles the source into the given FASL file. Compilation happens on
+	 * uniquely named files which are moved into place atomically, so several
+	 * executors can share the cache folder.
+	 * @param bytes the source of the script
+	 * @param fasl the target file
+	 * @return {@code true} if the FASL file was created, {@code false} otherwise.
+	 * @throws IOException in case of error
+	 */
+	protected boolean compile(final byte[] bytes, final Path fasl) throws IOException {
+		Files.createDirectories(cacheFolder);
+		final String unique = UUID.randomUUID().toString();
+		final Path lisp = cacheFolder.resolve(unique + LISP);
+		final Path compiled = cacheFolder.resolve(unique + FASL);
+		try {
+			Files.write(lisp, bytes);
+			file.setSymbolValue(new SimpleString(lisp.toString()));
+			output.setSymbolValue(new SimpleString(compiled.toString()));
+			final LispObject result = interpreter.eval("(compile-file " + VAR_FILE + " :output-file " + VAR_OUTPUT + ")");
+			if (result == Lisp.NIL || Files.notExists(compiled)) {
+				return false;
+			}
+			Files.move(compiled, fasl, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} finally {
+			Files.deleteIfExists(lisp);
+			Files.deleteIfExists(compiled);
+		}
+	}
+
+	/**
+	 * Returns the name of the FASL of the given source. FASLs depend on the ABCL
+	 * version, so the name is the SHA-256 hash of the version and the source.
+	 * @param bytes the source of the script
+	 * @return the name of the FASL, without extension
+	 */
+	protected static String key(final byte[] bytes) {
+		return Hashing
+			.sha256()
+			.newHasher()
+			.putString(Version.getVersion(), StandardCharsets.UTF_8)
+			.putByte((byte) 0)
+			.putBytes(bytes)
+			.hash()
+			.toString();
+	}
+
+	protected byte[] read(final String resource) throws IOException {
+		final URL url = LispLoader.class.getResource(resource);
+		if (url == null) {
+			throw new IOException("resource not found: " + resource);
+		}
+		try (final InputStream stream = url.openStream()) {
+			return ByteStreams.toByteArray(stream);
+		}
+	}
+
+}
@@ -19,26 +19,43 @@ package de.engehausen.cc2;
 
 import java.io.File;
 import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import de.engehausen.cc2.api.Reporter;
 import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.InputsLoader;
+import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.timing.Statistical;
 
 /**
  * Main challenge executor. Executes the challenge contributions found
  * and reports to the console by default.
  * The following command line arguments are evaluated:
  * <ul>
- *   <li>{@code -inputs=<filename>} - mandatory file specifying the inputs for testing</li>
+ *   <li>{@code -inputs=<filename>} - mandatory file specifying the inputs for testing, JSON (may be gzip-compressed) or binary</li>
  *   <li>{@code -reporter=<name>} - reporter to use, {@code console} by default</li>
  *   <li>{@code -filter=<regexp>} - filter challenge solutions by regular expression</li>
  *   <li>{@code -dry} - does not perform the tests, but outputs the inputs</li>
+ *   <li>{@code -parallel=<number>} - number of contributions to run at the same time, {@code 1} by default</li>
+ *   <li>{@code -timedslots=<number>} - maximal number of timed sections running at the same time, unlimited by default</li>
+ *   <li>{@code -nolispcache} - loads Lisp scripts from source instead of the compiled FASL cache</li>
+ *   <li>{@code -measure=<best|stats>} - best of ten runs (default) or statistical measurement, the latter
+ *   configured by {@code -warmups=<number>}, {@code -iterations=<number>} and {@code -forks=<number>}</li>
+ *   <li>{@code -timeout=<millis>} - default time budget per invocation, unlimited by default</li>
+ *   <li>{@code -rerun} - measures all contributions again instead of reusing the records of unchanged contributions and inputs</li>
+ *   <li>{@code -responsecap=<bytes>} - maximal size of the recorded response of a passed challenge, {@code 4096} by default</li>
+ *   <li>{@code -fullresponses} - records the complete responses of passed challenges, too, and of failed streamed XML transformations</li>
+ *   <li>{@code -xmlstreaming} - streams XML inputs through the transformations instead of parsing them into documents</li>
+ *   <li>{@code -fork} - runs each contribution in a child JVM of its own</li>
+ *   <li>{@code -forkjvm=<options>} - comma-separated JVM options for the child JVMs, e.g. {@code -Xmx512m,-XX:+UseG1GC}</li>
  * </ul>
  */
 public class Main {
@@ -51,6 +68,38 @@ public class Main {
 	public static final String ARG_FILTER = "-filter";
 	/** {@code -dry}: a flag to not run the contributions but just to report */
 	public static final String ARG_DRY = "-dry";
+	/** {@code -parallel}: the number of contributions to run at the same time */
+	public static final String ARG_PARALLEL = "-parallel";
+	/** {@code -timedslots}: the maximal number of timed sections running at the same time */
+	public static final String ARG_TIMED_SLOTS = "-timedslots";
+	/** {@code -nolispcache}: a flag to not compile Lisp scripts into the FASL cache */
+	public static final String ARG_NO_LISP_CACHE = "-nolispcache";
+	/** {@code -measure}: the measurement, either {@link #MEASURE_BEST} or {@link #MEASURE_STATS} */
+	public static final String ARG_MEASURE = "-measure";
+	/** {@code -warmups}: the number of warmup iterations per fork of the statistical measurement */
+	public static final String ARG_WARMUPS = "-warmups";
+	/** {@code -iterations}: the number of measurement iterations per fork of the statistical measurement */
+	public static final String ARG_ITERATIONS = "-iterations";
+	/** {@code -forks}: the number of forks of the statistical measurement */
+	public static final String ARG_FORKS = "-forks";
+	/** {@code -timeout}: the default time budget per invocation in milliseconds */
+	public static final String ARG_TIMEOUT = "-timeout";
+	/** {@code -rerun}: flag to measure all contributions again instead of using the result cache */
+	public static final String ARG_RERUN = "-rerun";
+	/** {@code -responsecap}: the maximal number of bytes recorded of the response of a passed challenge */
+	public static final String ARG_RESPONSE_CAP = "-responsecap";
+	/** {@code -fullresponses}: a flag to record the complete responses of passed challenges */
+	public static final String ARG_FULL_RESPONSES = "-fullresponses";
+	/** {@code -xmlstreaming}: a flag to stream XML inputs through the transformations */
+	public static final String ARG_XML_STREAMING = "-xmlstreaming";
+	/** {@code -fork}: a flag to run each contribution in a child JVM */
+	public static final String ARG_FORK = "-fork";
+	/** {@code -forkjvm}: comma-separated JVM options for the child JVMs */
+	public static final String ARG_FORK_JVM = "-forkjvm";
+	/** {@code best}: best of ten runs */
+	public static final String MEASURE_BEST = "best";
+	/** {@code stats}: statistical measurement with warmup */
+	public static final String MEASURE_STATS = "stats";
 	/** {@code console}: {@code System.out} output */
 	public static final String REPORTER_CONSOLE = "console";
 
@@ -61,6 +110,8 @@ public class Main {
 		L_LN + "This is free software, and you are welcome to redistribute it" +
 		L_LN + "under certain conditions; see source code for details.\n\n";
 
+	private static final List<String> NOT_FORWARDED = Arrays.asList(ARG_INPUTS, ARG_REPORTER, ARG_FILTER, ARG_DRY, ARG_PARALLEL, ARG_FORK, ARG_FORK_JVM);
+
 	private static Map<String, Reporter> REPORTERS;
 
 	static {
@@ -82,34 +133,104 @@ public class Main {
 	 */
 	public static void main(final String... args) throws Throwable {
 		System.out.println(LICENSE_INFO);
-		final Map<String, String> parameters =
-			Stream.of(args.length != 1 ? args : args[0].split(" "))
-			.collect(Collectors.toMap(Main::key, Main::value));
+		final Map<String, String> parameters = parameters(args);
 		if (!parameters.containsKey(ARG_INPUTS)) {
 			System.out.println("please specify -inputs=...json");
 			System.out.printf("known reporters (-reporter=...) are ", REPORTERS.keySet());
 			return;
 		}
-		final Inputs inputs = new ObjectMapper().readValue(new File(parameters.get(ARG_INPUTS)), Inputs.class);
-		try (final Executor executor = new Executor(inputs)) {
-			final Reporter reporter = REPORTERS.get(parameters.get(ARG_REPORTER) == null ? REPORTER_CONSOLE : parameters.get(ARG_REPORTER));
-			if (reporter == null) {
-				System.out.printf("unknown reporter %s%n", parameters.get(ARG_REPORTER));
-				return;
+		final Settings settings;
+		try {
+			settings = settings(parameters);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return;
+		}
+		settings.inputsFile = Paths.get(parameters.get(ARG_INPUTS));
+		final Inputs inputs = InputsLoader.load(settings.inputsFile);
+		final Reporter reporter = REPORTERS.get(parameters.get(ARG_REPORTER) == null ? REPORTER_CONSOLE : parameters.get(ARG_REPORTER));
+		if (reporter == null) {
+			System.out.printf("unknown reporter %s%n", parameters.get(ARG_REPORTER));
+			return;
+		}
+		settings.keepRecords = reporter.usesRecords();
+		final OutputStream out = reporter.createOutputStream(System.getProperty("user.dir") + File.separatorChar + "target");
+		try (final Executor executor = new Executor(inputs, settings) {
+			@Override
+			protected void recorded(final String name, final Results results, final Record record) {
+				reporter.onRecord(challenge(results), results, name, record, out);
 			}
-			final OutputStream out = reporter.createOutputStream(System.getProperty("user.dir") + File.separatorChar + "target");
+		}) {
 			if (!parameters.containsKey(ARG_DRY)) {
 				if (!parameters.containsKey(ARG_FILTER)) {
 					executor.runAll();
 				} else {
 					final Pattern pattern = Pattern.compile(parameters.get(ARG_FILTER));
-					executor.run(info -> info.getName().startsWith(Executor.PKG_PREFIX) && pattern.matcher(info.getName()).find());
+					executor.runIndexed(name -> name.startsWith(Executor.PKG_PREFIX) && pattern.matcher(name).find());
 				}
 			}
 			reporter.generate(inputs, out);
 		}
 	}
 	
+	/**
+	 * Parses the command line arguments into a map of parameter names to values.
+	 * Flags without a value map to themselves.
+	 * @param args the command line arguments, either separately or in one string
+	 * @return the parameters
+	 */
+	protected static Map<String, String> parameters(final String... args) {
+		return Stream
+			.of(args.length != 1 ? args : args[0].split(" "))
+			.collect(Collectors.toMap(Main::key, Main::value));
+	}
+
+	/**
+	 * Creates the execution settings from the given parameters.
+	 * @param parameters the parameters
+	 * @return the settings
+	 * @throws IllegalArgumentException in case of an invalid parameter
+	 */
+	protected static Settings settings(final Map<String, String> parameters) {
+		final Settings settings = new Settings();
+		if (parameters.containsKey(ARG_PARALLEL)) {
+			settings.parallelism = Integer.parseInt(parameters.get(ARG_PARALLEL));
+		}
+		if (parameters.containsKey(ARG_TIMED_SLOTS)) {
+			settings.timedSlots = Integer.parseInt(parameters.get(ARG_TIMED_SLOTS));
+		}
+		settings.lispCache = !parameters.containsKey(ARG_NO_LISP_CACHE);
+		if (parameters.containsKey(ARG_TIMEOUT)) {
+			settings.timeout = Long.parseLong(parameters.get(ARG_TIMEOUT));
+		}
+		if (MEASURE_STATS.equals(parameters.get(ARG_MEASURE))) {
+			settings.measurement = new Statistical(
+				Integer.parseInt(parameters.getOrDefault(ARG_WARMUPS, "5")),
+				Integer.parseInt(parameters.getOrDefault(ARG_ITERATIONS, "10")),
+				Integer.parseInt(parameters.getOrDefault(ARG_FORKS, "2")));
+		} else if (parameters.containsKey(ARG_MEASURE) && !MEASURE_BEST.equals(parameters.get(ARG_MEASURE))) {
+			throw new IllegalArgumentException("unknown measurement " + parameters.get(ARG_MEASURE));
+		}
+		settings.resultCache = true;
+		settings.rerun = parameters.containsKey(ARG_RERUN);
+		if (parameters.containsKey(ARG_RESPONSE_CAP)) {
+			settings.responseCap = Integer.parseInt(parameters.get(ARG_RESPONSE_CAP));
+		}
+		settings.fullResponses = parameters.containsKey(ARG_FULL_RESPONSES);
+		settings.xmlStreaming = parameters.containsKey(ARG_XML_STREAMING);
+		settings.fork = parameters.containsKey(ARG_FORK);
+		if (parameters.containsKey(ARG_FORK_JVM)) {
+			settings.forkOptions = Arrays.asList(parameters.get(ARG_FORK_JVM).split(","));
+		}
+		settings.forkArguments = parameters
+			.entrySet()
+			.stream()
+			.filter(entry -> !NOT_FORWARDED.contains(entry.getKey()))
+			.map(entry -> entry.getKey().equals(entry.getValue()) ? entry.getKey() : entry.getKey() + '=' + entry.getValue())
+			.collect(Collectors.toList());
+		return settings;
+	}
+
 	protected static String key(final String parameter) {
 		final int idx = parameter.indexOf('=');
 		return idx < 0 ? parameter : parameter.substring(0, idx);
@@ -0,0 +1,257 @@
+package de.engehausen.cc2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Persistent cache of result records. A record is stored under the SHA-256 hash of
+ * the harness version, the fingerprint of the contribution (its classes and resources),
+ * the input data without results and the time budget. A record is thus only reused
+ * as long as neither the contribution, nor the input, nor the harness changed.
+ */
+public class ResultCache {
+
+	private static final String JSON = ".json";
+	private static final String CLASS = ".class";
+	private static final String MISSING = "<missing>";
+	private static final List<String> HARNESS_PACKAGES = Collections.unmodifiableList(Arrays.asList(
+		"de/engehausen/cc2/data/",
+		"de/engehausen/cc2/timing/",
+		"de/engehausen/cc2/verifiers/"
+	));
+	private static final List<Class<?>> HARNESS_CLASSES = Collections.unmodifiableList(Arrays.asList(
+		Executor.class,
+		JavaScriptRuntime.class,
+		LispLoader.class,
+		XsltTransformer.class
+	));
+
+	private final ObjectMapper mapper;
+	private final Path folder;
+	private final String environment;
+
+	/**
+	 * Creates the cache.
+	 * @param folder the folder holding the cached records, must not be {@code null}
+	 * @param setup a description of the measurement setup, which becomes part of each key
+	 * @throws IOException in case of error
+	 */
+	public ResultCache(final Path folder, final String setup) throws IOException {
+		this.mapper = new ObjectMapper()
+			.setSerializationInclusion(Include.NON_NULL)
+			.addMixIn(Results.class, WithoutResults.class);
+		this.folder = folder;
+		this.environment = harness() + '|' + setup;
+	}
+
+	/**
+	 * Returns the key of the record of a contribution for an input.
+	 * @param fingerprint the fingerprint of the contribution, see {@link #fingerprint(Class, Collection)}
+	 * @param data the input data
+	 * @param budget the time budget in milliseconds
+	 * @param resources resources the input refers to, e.g. an XML file to transform
+	 * @return the key
+	 * @throws IOException in case of error
+	 */
+	public String key(final String fingerprint, final Results data, final long budget, final Collection<String> resources) throws IOException {
+		return key(fingerprint, data, budget, resources, Collections.emptyList());
+	}
+
+	/**
+	 * Returns the key of the record of a contribution for an input referring to files.
+	 * Files may be large, so they are represented by their size and modification time
+	 * instead of their contents.
+	 * @param fingerprint the fingerprint of the contribution, see {@link #fingerprint(Class, Collection)}
+	 * @param data the input data
+	 * @param budget the time budget in milliseconds
+	 * @param resources resources the input refers to, e.g. an XML file to transform
+	 * @param files files on disk the input refers to
+	 * @return the key
+	 * @throws IOException in case of error
+	 */
+	public String key(final String fingerprint, final Results data, final long budget, final Collection<String> resources, final Collection<Path> files) throws IOException {
+		final Hasher hasher = Hashing.sha256().newHasher()
+			.putString(environment, StandardCharsets.UTF_8)
+			.putString(fingerprint, StandardCharsets.UTF_8)
+			.putString(data.getClass().getName(), StandardCharsets.UTF_8)
+			.putBytes(mapper.writeValueAsBytes(data))
+			.putLong(budget);
+		for (final String resource : resources) {
+			putResource(hasher, resource);
+		}
+		for (final Path file : files) {
+			hasher.putString(file.toAbsolutePath().toString(), StandardCharsets.UTF_8);
+			if (Files.isRegularFile(file)) {
+				hasher
+					.putLong(Files.size(file))
+					.putLong(Files.getLastModifiedTime(file).toMillis());
+			} else {
+				hasher.putString(MISSING, StandardCharsets.UTF_8);
+			}
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Returns the record cached for the given key.
+	 * @param key the key
+	 * @return the record, or {@code null} if there is none
+	 */
+	public Record get(final String key) {
+		final Path file = folder.resolve(key + JSON);
+		if (Files.exists(file)) {
+			try {
+				return mapper.readValue(file.toFile(), Record.class);
+			} catch (IOException e) {
+				// unreadable entry, treat as a miss
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the record under the given key. The record is written to a uniquely
+	 * named file first and moved into place atomically, so several executors can
+	 * share the cache folder.
+	 * @param key the key
+	 * @param record the record
+	 * @throws IOException in case of error
+	 */
+	public void put(final String key, final Record record) throws IOException {
+		Files.createDirectories(folder);
+		final Path temp = folder.resolve(UUID.randomUUID().toString());
+		try {
+			mapper.writeValue(temp.toFile(), record);
+			Files.move(temp, folder.resolve(key + JSON), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of a contribution from the class files in and below
+	 * its package and the resources it refers to.
+	 * @param packageInfo the {@code package-info} class of the contribution
+	 * @param resources the resources of the contribution, e.g. {@code /examples/rpnDemo.lisp}
+	 * @return the fingerprint
+	 * @throws IOException in case of error
+	 */
+	public static String fingerprint(final Class<?> packageInfo, final Collection<String> resources) throws IOException {
+		final Hasher hasher = Hashing.sha256().newHasher();
+		putPackage(hasher, packageInfo.getClassLoader(), packageInfo.getPackage().getName().replace('.', '/') + '/');
+		for (final String resource : resources) {
+			putResource(hasher, resource);
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Computes the version of the harness from the classes that run and verify the
+	 * contributions, so that a change of a verifier invalidates the cached records.
+	 * @return the version
+	 * @throws IOException in case of error
+	 */
+	protected static String harness() throws IOException {
+		final Hasher hasher = Hashing.sha256().newHasher();
+		final ClassLoader loader = Executor.class.getClassLoader();
+		for (final String pkg : HARNESS_PACKAGES) {
+			putPackage(hasher, loader, pkg);
+		}
+		for (final Class<?> clz : HARNESS_CLASSES) {
+			putResource(hasher, '/' + clz.getName().replace('.', '/') + CLASS);
+		}
+		return hasher.hash().toString();
+	}
+
+	private static void putResource(final Hasher hasher, final String resource) throws IOException {
+		hasher.putString(resource, StandardCharsets.UTF_8);
+		final URL url = ResultCache.class.getResource(resource);
+		if (url == null) {
+			hasher.putString(MISSING, StandardCharsets.UTF_8);
+		} else {
+			try (final InputStream stream = url.openStream()) {
+				hasher.putBytes(ByteStreams.toByteArray(stream));
+			}
+		}
+	}
+
+	private static void putPackage(final Hasher hasher, final ClassLoader loader, final String path) throws IOException {
+		for (final URL url : Collections.list(loader.getResources(path))) {
+			if ("file".equals(url.getProtocol())) {
+				final Path root;
+				try {
+					root = Paths.get(url.toURI());
+				} catch (URISyntaxException e) {
+					throw new IOException(e);
+				}
+				final List<Path> files;
+				try (final Stream<Path> walk = Files.walk(root)) {
+					files = walk
+						.filter(file -> file.toString().endsWith(CLASS))
+						.sorted()
+						.collect(Collectors.toList());
+				}
+				for (final Path file : files) {
+					hasher
+						.putString(root.relativize(file).toString().replace('\\', '/'), StandardCharsets.UTF_8)
+						.putBytes(Files.readAllBytes(file));
+				}
+			} else {
+				final URLConnection connection = url.openConnection();
+				if (connection instanceof JarURLConnection) {
+					final JarFile jar = ((JarURLConnection) connection).getJarFile();
+					final List<JarEntry> entries = Collections
+						.list(jar.entries())
+						.stream()
+						.filter(entry -> entry.getName().startsWith(path) && entry.getName().endsWith(CLASS))
+						.sorted((a, b) -> a.getName().compareTo(b.getName()))
+						.collect(Collectors.toList());
+					for (final JarEntry entry : entries) {
+						try (final InputStream stream = jar.getInputStream(entry)) {
+							hasher
+								.putString(entry.getName(), StandardCharsets.UTF_8)
+								.putBytes(ByteStreams.toByteArray(stream));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mix-in excluding the results from the input data of a key.
+	 */
+	@JsonIgnoreProperties("results")
+	private abstract static class WithoutResults {
+		// mix-in only
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.engehausen.cc2;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import de.engehausen.cc2.timing.BestOf;
+import de.engehausen.cc2.timing.Measurement;
+
+/**
+ * Settings controlling how the {@link Executor} runs the contributions.
+ * The defaults reproduce the sequential behavior of running every
+ * contribution one after another on the calling thread.
+ */
+public class Settings {
+
+	/** the number of contributions to run at the same time; {@code 1} runs them on the calling thread */
+	public int parallelism = 1;
+	/** the maximal number of timed sections running at the same time; {@code 0} means no limit */
+	public int timedSlots;
+	/** flag to compile Lisp scripts into a FASL cache in {@code target/fasl} */
+	public boolean lispCache = true;
+	/** the measurement of the execution times, best of ten runs by default */
+	public Measurement measurement = new BestOf(10);
+	/** the default time budget in milliseconds per invocation; {@code 0} means no limit */
+	public long timeout;
+	/** flag to reuse the records of unchanged contributions and inputs from the result cache in {@code target/cache} */
+	public boolean resultCache;
+	/** flag to measure all contributions again, refreshing the result cache */
+	public boolean rerun;
+	/** the maximal number of bytes kept of the response of a passed challenge; {@code 0} keeps complete responses. Streamed XML outputs are captured up to this cap whether or not they pass, as the verdict is only known once the output is complete */
+	public int responseCap = 4096;
+	/** flag to keep the complete responses of passed challenges, too; failed challenges always keep them, except for streamed XML outputs, which are only captured completely with this flag */
+	public boolean fullResponses;
+	/** flag to stream XML inputs through the transformations instead of parsing them into documents; files on disk are always streamed */
+	public boolean xmlStreaming;
+	/** flag to keep the records in the inputs until the end of the run; if not set, records are only passed to {@link Executor#recorded(String, de.engehausen.cc2.data.Results, de.engehausen.cc2.data.Results.Record)} */
+	public boolean keepRecords = true;
+	/** the file the inputs were loaded from, read by the child JVMs; {@code null} if the inputs were not loaded from a file */
+	public Path inputsFile;
+	/** flag to run each contribution in a child JVM of its own */
+	public boolean fork;
+	/** the JVM options of the child JVMs, e.g. {@code -Xmx512m} */
+	public List<String> forkOptions = Collections.emptyList();
+	/** the arguments passed to the child JVMs to configure their settings */
+	public List<String> forkArguments = Collections.emptyList();
+
+}
@@ -0,0 +1,137 @@
+package de.engehausen.cc2;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs tasks on a supervised thread and gives up on them once they
+ * exceed their deadline. A task which does not meet its deadline is
+ * interrupted; its thread is abandoned and a new thread is used for
+ * the next task. Supervised threads are daemon threads, so a task
+ * which ignores the interruption cannot keep the JVM alive.
+ * A supervisor is meant to be used by one thread at a time.
+ */
+public class Supervisor {
+
+	private static final AtomicInteger COUNT = new AtomicInteger();
+	private static final String NEWLINE = System.lineSeparator();
+
+	private ThreadPoolExecutor pool;
+	private volatile Thread thread;
+
+	/**
+	 * Runs the given task on the supervised thread and waits for its result.
+	 * @param <T> the result type
+	 * @param task the task to run, must not be {@code null}
+	 * @param deadline supplies the current deadline in terms of {@link System#nanoTime()}; the task
+	 * may move it, e.g. for each of a number of invocations it performs
+	 * @return the result of the task
+	 * @throws Timeout in case the deadline has passed before the task completed
+	 * @throws Exception in case the task failed
+	 */
+	public <T> T call(final Callable<T> task, final LongSupplier deadline) throws Exception {
+		final Future<T> future = pool().submit(task);
+		try {
+			while (true) {
+				final long wait = deadline.getAsLong() - System.nanoTime();
+				if (wait <= 0 && !future.isDone()) {
+					final String dump = dump(thread);
+					abandon();
+					throw new Timeout(dump);
+				}
+				try {
+					return future.get(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+				} catch (TimeoutException e) {
+					// the deadline may have moved, check again
+				}
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a thread dump of the given thread.
+	 * @param thread the thread
+	 * @return the thread dump
+	 */
+	protected static String dump(final Thread thread) {
+		if (thread == null) {
+			return null;
+		}
+		final StringBuilder result = new StringBuilder(1024);
+		result
+			.append('"')
+			.append(thread.getName())
+			.append("\" ")
+			.append(thread.getState());
+		for (final StackTraceElement element : thread.getStackTrace()) {
+			result
+				.append(NEWLINE)
+				.append("\tat ")
+				.append(element);
+		}
+		return result.toString();
+	}
+
+	private ThreadPoolExecutor pool() {
+		if (pool == null) {
+			pool = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				final Thread result = new Thread(runnable, "cc2-supervised-" + COUNT.incrementAndGet());
+				result.setDaemon(true);
+				thread = result;
+				return result;
+			});
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	private void abandon() {
+		pool.shutdownNow();
+		pool = null;
+		thread = null;
+	}
+
+	/**
+	 * Indicates that a supervised task has exceeded its deadline.
+	 */
+	public static class Timeout extends TimeoutException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String threadDump;
+
+		/**
+		 * Creates the exception.
+		 * @param threadDump the stack of the thread running the task at the time of the timeout
+		 */
+		public Timeout(final String threadDump) {
+			super("deadline exceeded");
+			this.threadDump = threadDump;
+		}
+
+		/**
+		 * Returns the stack of the thread running the task at the time of the timeout.
+		 * @return the thread dump, may be {@code null}
+		 */
+		public String getThreadDump() {
+			return threadDump;
+		}
+
+	}
+
+}
@@ -0,0 +1,294 @@
+package de.engehausen.cc2;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.CountingOutputStream;
+
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.XmlData;
+
+/**
+ * Generates XML documents of chosen sizes for both XSLT challenges, together with
+ * an inputs file referring to them; to be run on the command line.
+ * <p>Documents of the simple element transformation follow {@code easy-in.xsd}; some
+ * of their city and country codes reference entries which are not present. Documents
+ * of the multi-rule based transformation consist of trees of the given depth whose
+ * elements carry {@code marker:anyOf} and {@code marker:allOf} rules and declare used
+ * and unused namespaces. The assertions only count elements, so they can be checked
+ * while the output is streamed.</p>
+ * <p>The generated inputs can be run with the {@code throughput} reporter to see how
+ * the stylesheets scale with the document size.</p>
+ */
+public class XmlCorpus {
+
+	private static final String EASY_NS = "http://localhost/easy-in";
+	private static final String MARKER_NS = "http://localhost/marker";
+	private static final String USED_NS = "http://localhost/used";
+	private static final String UNUSED_NS = "http://localhost/unused";
+	private static final List<String> FLAGS = Arrays.asList("a", "b", "c", "x", "y", "z");
+	private static final String PARAMETER = "x,y,z";
+	private static final String[] FIRST_NAMES = { "Jane", "John", "Anna", "Luca", "Mia", "Noah", "Lena", "Paul" };
+	private static final String[] LAST_NAMES = { "Doe", "Muster", "Rossi", "Meier", "Smith", "Bianchi", "Keller" };
+	private static final String[] STREETS = { "Sesame Street", "Main Street", "Via Nassa", "Bahnhofstrasse", "Elm Street" };
+	private static final String[] CITIES = { "Lugano", "Zurich", "Basel", "Geneva", "Bern", "Chur", "Sion" };
+	private static final int COUNTRIES = 50;
+	private static final int MAX_CITIES = 1000;
+	private static final int FANOUT = 2;
+
+	private final XMLOutputFactory factory;
+	private final Random random;
+	private final int depth;
+
+	/**
+	 * Creates the generator.
+	 * @param seed the seed of the random numbers
+	 * @param depth the depth of the element trees of the multi-rule based transformation
+	 */
+	public XmlCorpus(final long seed, final int depth) {
+		this.factory = XMLOutputFactory.newInstance();
+		this.random = new Random(seed);
+		this.depth = depth;
+	}
+
+	/**
+	 * Writes a document of the simple element transformation of about the given size.
+	 * @param size the size in bytes
+	 * @param out the stream to write to, must not be {@code null}
+	 * @return the input data with the assertions about the output
+	 * @throws IOException in case of error
+	 */
+	public XmlData easy(final long size, final OutputStream out) throws IOException {
+		final CountingOutputStream counting = new CountingOutputStream(out);
+		final int cities = (int) Math.max(10, Math.min(MAX_CITIES, size / 2000));
+		int items = 0;
+		try {
+			final XMLStreamWriter writer = factory.createXMLStreamWriter(counting, "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.setDefaultNamespace(EASY_NS);
+			writer.writeStartElement(EASY_NS, "data");
+			writer.writeDefaultNamespace(EASY_NS);
+			writer.writeStartElement(EASY_NS, "items");
+			// the cities and countries are small compared to the items
+			while (counting.getCount() < size - 40L * (cities + COUNTRIES)) {
+				writer.writeEmptyElement(EASY_NS, "item");
+				writer.writeAttribute("firstName", pick(FIRST_NAMES));
+				writer.writeAttribute("lastName", pick(LAST_NAMES));
+				writer.writeAttribute("street", pick(STREETS));
+				// some codes reference entries which do not exist
+				writer.writeAttribute("cityCode", Integer.toString(100 + random.nextInt(cities + cities / 10)));
+				writer.writeAttribute("countryCode", country(random.nextInt(COUNTRIES + COUNTRIES / 10)));
+				items++;
+				writer.flush();
+			}
+			writer.writeEndElement();
+			writer.writeStartElement(EASY_NS, "cities");
+			for (int i = 0; i < cities; i++) {
+				writer.writeStartElement(EASY_NS, "city");
+				writer.writeAttribute("code", Integer.toString(100 + i));
+				writer.writeCharacters(CITIES[i % CITIES.length] + ' ' + i);
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+			writer.writeStartElement(EASY_NS, "countries");
+			for (int i = 0; i < COUNTRIES; i++) {
+				writer.writeEmptyElement(EASY_NS, "country");
+				writer.writeAttribute("code", country(i));
+				writer.writeAttribute("name", "Country " + i);
+			}
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+		return new XmlData(null, null, Arrays.asList(
+			"count(/items) = 1",
+			"count(/items/item) = " + items,
+			"count(/items/item/name) = " + items
+		));
+	}
+
+	/**
+	 * Writes a document of the multi-rule based transformation of about the given size.
+	 * @param size the size in bytes
+	 * @param out the stream to write to, must not be {@code null}
+	 * @return the input data with the flags parameter and the assertions about the output
+	 * @throws IOException in case of error
+	 */
+	public XmlData hard(final long size, final OutputStream out) throws IOException {
+		final CountingOutputStream counting = new CountingOutputStream(out);
+		final Set<String> flags = new HashSet<>(Arrays.asList(PARAMETER.split(",")));
+		final long[] kept = new long[2];
+		try {
+			final XMLStreamWriter writer = factory.createXMLStreamWriter(counting, "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeStartElement("a");
+			writer.writeNamespace("marker", MARKER_NS);
+			kept[0]++;
+			while (counting.getCount() < size) {
+				if (tree(writer, 1, flags, kept)) {
+					kept[1]++;
+				}
+				writer.flush();
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+		return new XmlData(null, PARAMETER, Arrays.asList(
+			"count(/a) = 1",
+			"count(/a/*) = " + kept[1],
+			"count(//*) = " + kept[0]
+		));
+	}
+
+	/**
+	 * Writes a tree of elements and counts the elements which are kept for the given flags.
+	 * @return {@code true} if the root of the tree is kept
+	 */
+	protected boolean tree(final XMLStreamWriter writer, final int level, final Set<String> flags, final long[] kept) throws XMLStreamException {
+		writer.writeStartElement(Character.toString((char) ('a' + Math.min(level, 25))));
+		final boolean result;
+		final int rule = random.nextInt(3);
+		if (rule == 0) {
+			final List<String> anyOf = flags(1 + random.nextInt(3));
+			writer.writeAttribute("marker", MARKER_NS, "anyOf", String.join(",", anyOf));
+			result = anyOf.stream().anyMatch(flags::contains);
+		} else if (rule == 1) {
+			final List<String> allOf = flags(1 + random.nextInt(2));
+			writer.writeAttribute("marker", MARKER_NS, "allOf", String.join(",", allOf));
+			result = flags.containsAll(allOf);
+		} else {
+			result = true;
+		}
+		final boolean namespaced = random.nextInt(4) == 0;
+		if (namespaced) {
+			writer.writeNamespace("unused", UNUSED_NS);
+			writer.writeNamespace("used", USED_NS);
+		}
+		if (level < depth) {
+			for (int i = 0; i < FANOUT; i++) {
+				final long before = kept[0];
+				if (!tree(writer, level + 1, flags, kept) || !result) {
+					// neither the child nor its kept descendants remain
+					kept[0] = before;
+				}
+			}
+		} else {
+			if (namespaced) {
+				writer.writeAttribute("used", USED_NS, "used", "true");
+			}
+			writer.writeCharacters("text " + random.nextInt(1000));
+		}
+		writer.writeEndElement();
+		if (result) {
+			kept[0]++;
+		}
+		return result;
+	}
+
+	protected List<String> flags(final int count) {
+		final List<String> result = new ArrayList<>(FLAGS);
+		Collections.shuffle(result, random);
+		return result.subList(0, count);
+	}
+
+	private String pick(final String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private static String country(final int index) {
+		return new String(new char[] { (char) ('A' + index / 26), (char) ('A' + index % 26) });
+	}
+
+	/**
+	 * Parses a size such as {@code 512k}, {@code 16m} or {@code 1g}.
+	 * @param size the size
+	 * @return the size in bytes
+	 */
+	protected static long parseSize(final String size) {
+		final String value = size.trim().toLowerCase(Locale.ROOT);
+		final char unit = value.charAt(value.length() - 1);
+		switch (unit) {
+			case 'k':
+				return Long.parseLong(value.substring(0, value.length() - 1)) << 10;
+			case 'm':
+				return Long.parseLong(value.substring(0, value.length() - 1)) << 20;
+			case 'g':
+				return Long.parseLong(value.substring(0, value.length() - 1)) << 30;
+			default:
+				return Long.parseLong(value);
+		}
+	}
+
+	/**
+	 * Generates the documents and the inputs file {@code inputs.json} into a folder.
+	 * @param args the arguments, either exactly one argument containing a whitespace-separated
+	 * string, or the separate arguments: the target folder, the comma-separated sizes
+	 * (e.g. {@code 64k,1m,16m}), and optionally the tree depth (default 4) and the seed (default 1).
+	 * <p>This is normally run through Maven using {@code mvn -Pxmlcorpus ...}</p>
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final String[] params = args.length == 1 ? args[0].split(" ") : args;
+		if (params.length < 2 || params[0].startsWith("$") || params[1].startsWith("$")) {
+			System.err.println("*** please specify the target folder and the sizes, e.g. -Dout=target/corpus -Dsizes=64k,1m,16m");
+			return;
+		}
+		final Path folder = Paths.get(params[0]);
+		final int depth = params.length > 2 && !params[2].startsWith("$") ? Integer.parseInt(params[2]) : 4;
+		final long seed = params.length > 3 && !params[3].startsWith("$") ? Long.parseLong(params[3]) : 1L;
+		final XmlCorpus corpus = new XmlCorpus(seed, depth);
+		final Inputs inputs = new Inputs();
+		inputs.xmlEasy = new ArrayList<>();
+		inputs.xmlHard = new ArrayList<>();
+		Files.createDirectories(folder);
+		for (final String size : params[1].split(",")) {
+			final long bytes = parseSize(size);
+			final Path easy = folder.resolve("easy-" + size + ".xml");
+			try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(easy))) {
+				inputs.xmlEasy.add(corpus.easy(bytes, out));
+			}
+			final Path hard = folder.resolve("hard-" + size + ".xml");
+			try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(hard))) {
+				inputs.xmlHard.add(corpus.hard(bytes, out));
+			}
+			label(inputs.xmlEasy, easy);
+			label(inputs.xmlHard, hard);
+		}
+		new ObjectMapper()
+			.setSerializationInclusion(Include.NON_NULL)
+			.writerWithDefaultPrettyPrinter()
+			.writeValue(folder.resolve("inputs.json").toFile(), inputs);
+		System.out.printf("generated %d documents into %s%n", Integer.valueOf(2 * inputs.xmlEasy.size()), folder);
+	}
+
+	private static void label(final List<XmlData> list, final Path file) throws IOException {
+		final XmlData data = list.get(list.size() - 1);
+		data.xmlFile = file.toString();
+		data.label = String.format(Locale.ROOT, "%s (%.2f MB)", file.getFileName(), Double.valueOf(Files.size(file) / (double) (1 << 20)));
+	}
+
+}
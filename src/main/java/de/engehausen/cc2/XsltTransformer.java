@@ -4,21 +4,33 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 import de.engehausen.cc2.verifiers.XmlVerifier;
 
@@ -29,11 +41,21 @@ import de.engehausen.cc2.verifiers.XmlVerifier;
  * invocation and for use in the {@link Executor}.
  * An <em>namespace-aware</em> document builder factory is used in
  * the standalone case.
+ * <p>Stylesheets from the classpath are compiled into {@link Templates} once
+ * per JVM; the templates are thread-safe and hand out cheap transformers.
+ * Input documents from the classpath are parsed once per instance. An instance
+ * must only be used by one thread at a time.</p>
+ * <p>Large inputs, e.g. files on disk, are not parsed into a document but
+ * read as a {@link SAXSource streaming source} for each transformation.</p>
  */
 public class XsltTransformer {
 
+	private static final ConcurrentMap<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+
 	public final DocumentBuilder docBuilder;
+	private final SAXParserFactory saxParserFactory;
 	private final TransformerFactory transformerFactory;
+	private final Map<String, Document> documents;
 
 	public XsltTransformer() {
 		final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
@@ -43,7 +65,10 @@ public class XsltTransformer {
 		} catch (ParserConfigurationException e) {
 			throw new IllegalStateException(e);
 		}
+		saxParserFactory = SAXParserFactory.newInstance();
+		saxParserFactory.setNamespaceAware(true);
 		transformerFactory = TransformerFactory.newInstance();
+		documents = new HashMap<>();
 	}
 	
 	public Transformer newTransformer(final InputStream stream) throws TransformerConfigurationException {
@@ -52,6 +77,96 @@ public class XsltTransformer {
 		);
 	}
 
+	/**
+	 * Returns a new transformer for the given stylesheet resource. The stylesheet
+	 * is compiled only once; further transformers are created from the cached templates.
+	 * @param resource the resource name of the stylesheet, e.g. {@code /examples/xsltEasyDemo.xslt}
+	 * @return the transformer, never {@code null}
+	 * @throws TransformerConfigurationException in case of error
+	 */
+	public Transformer newTransformer(final String resource) throws TransformerConfigurationException {
+		Templates templates = TEMPLATES.get(resource);
+		if (templates == null) {
+			final URL url = XsltTransformer.class.getResource(resource);
+			if (url == null) {
+				throw new TransformerConfigurationException("resource not found: " + resource);
+			}
+			try (final InputStream stream = url.openStream()) {
+				templates = transformerFactory.newTemplates(new StreamSource(stream, url.toExternalForm()));
+			} catch (IOException e) {
+				throw new TransformerConfigurationException(e);
+			}
+			final Templates existing = TEMPLATES.putIfAbsent(resource, templates);
+			if (existing != null) {
+				templates = existing;
+			}
+		}
+		return templates.newTransformer();
+	}
+
+	/**
+	 * Returns the parsed document of the given resource. The document is
+	 * parsed on first request and must not be modified.
+	 * @param resource the resource name of the document, e.g. {@code /xml/inEasy.xml}
+	 * @return the document, or {@code null} if the resource does not exist
+	 * @throws IOException in case of error
+	 * @throws SAXException in case of a parse error
+	 */
+	public Document document(final String resource) throws IOException, SAXException {
+		Document result = documents.get(resource);
+		if (result == null) {
+			try (final InputStream stream = XsltTransformer.class.getResourceAsStream(resource)) {
+				if (stream == null) {
+					return null;
+				}
+				result = docBuilder.parse(new InputSource(stream));
+			}
+			documents.put(resource, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the location of an input, either a file or a classpath resource.
+	 * @param resource the resource name of the document, may be {@code null}
+	 * @param file the path of the document on disk, takes precedence over the resource, may be {@code null}
+	 * @return the location, or {@code null} if the input does not exist
+	 * @throws IOException in case of error
+	 */
+	public static URL locate(final String resource, final String file) throws IOException {
+		if (file != null) {
+			final Path path = Paths.get(file);
+			return Files.isRegularFile(path) ? path.toUri().toURL() : null;
+		}
+		return resource == null ? null : XsltTransformer.class.getResource(resource);
+	}
+
+	/**
+	 * Returns a source streaming the document at the given location. The document
+	 * is read while it is transformed; the source can be used only once.
+	 * @param location the location of the document, must not be {@code null}
+	 * @return the source, never {@code null}
+	 * @throws SAXException in case of error
+	 */
+	public SAXSource source(final URL location) throws SAXException {
+		try {
+			// a reader of its own, as an abandoned transformation may still use a previous one
+			final XMLReader reader = saxParserFactory.newSAXParser().getXMLReader();
+			return new SAXSource(reader, new InputSource(location.toExternalForm()));
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	/**
+	 * Drops the parsed document of the given resource, e.g. because an
+	 * abandoned transformation may still be reading it.
+	 * @param resource the resource name of the document
+	 */
+	public void evict(final String resource) {
+		documents.remove(resource);
+	}
+
 	private Document transform(final String xmlResource, final String xsltResource, final String flags) throws IOException, SAXException, TransformerException {
 		try (final InputStream xsltStream = new FileInputStream(xsltResource)) {
 			final Transformer xsltTransformer = newTransformer(xsltStream);
@@ -0,0 +1,26 @@
+package de.engehausen.cc2.api;
+
+import java.util.function.Consumer;
+
+/**
+ * Function to compute a flight path of a bee through a flower field,
+ * visiting each flower exactly once within a given time limit, which
+ * publishes better and better paths while it searches. The harness records
+ * when the first valid path and the best path were published and how the
+ * time of the published paths improved.
+ */
+public interface AnytimeBusyBeeFunction {
+
+	/**
+	 * Computes a path visiting all flowers within the given time limit, if possible.
+	 * Each path found on the way can be published to the given consumer; the consumer
+	 * may be called from any thread and copies the path, so the array can be reused.
+	 * 
+	 * @param graph the flower field, never {@code null}
+	 * @param maxTime the maximal time the result path can take
+	 * @param progress the consumer of the flower ids of intermediate paths, never {@code null}
+	 * @return the flower ids of the best path, or an empty array if no path exists - never {@code null}
+	 */
+	int[] apply(FlowerGraph graph, int maxTime, Consumer<int[]> progress);
+
+}
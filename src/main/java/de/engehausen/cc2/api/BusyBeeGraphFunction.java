@@ -0,0 +1,21 @@
+package de.engehausen.cc2.api;
+
+/**
+ * Function to compute a flight path of a bee through a flower field,
+ * visiting each flower exactly once within a given time limit. Unlike
+ * the {@link BusyBeeFunction} the flower field is passed as a prebuilt
+ * graph with dense flower ids, so no time is spent on indexing the
+ * connections.
+ */
+public interface BusyBeeGraphFunction {
+
+	/**
+	 * Computes a path visiting all flowers within the given time limit, if possible.
+	 * 
+	 * @param graph the flower field, never {@code null}
+	 * @param maxTime the maximal time the result path can take
+	 * @return the flower ids of a valid path, or an empty array if no path exists - never {@code null}
+	 */
+	int[] apply(FlowerGraph graph, int maxTime);
+
+}
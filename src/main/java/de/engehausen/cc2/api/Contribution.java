@@ -79,4 +79,19 @@ public @interface Contribution {
 	 */
 	Class<? extends BusyBeeFunction> busyBee() default BusyBeeFunction.class;
 
+	/**
+	 * Returns the class implementing the "Busy Bee" challenge on a prebuilt
+	 * {@link FlowerGraph}. If given, it is run instead of {@link #busyBee()}.
+	 * @return the class implementing the "Busy Bee" challenge.
+	 */
+	Class<? extends BusyBeeGraphFunction> busyBeeGraph() default BusyBeeGraphFunction.class;
+
+	/**
+	 * Returns the class implementing the "Busy Bee" challenge which publishes
+	 * intermediate paths. If given, it is run instead of {@link #busyBeeGraph()}
+	 * and {@link #busyBee()}.
+	 * @return the class implementing the "Busy Bee" challenge.
+	 */
+	Class<? extends AnytimeBusyBeeFunction> anytimeBusyBee() default AnytimeBusyBeeFunction.class;
+
 }
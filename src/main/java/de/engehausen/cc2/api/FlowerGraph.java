@@ -0,0 +1,71 @@
+package de.engehausen.cc2.api;
+
+/**
+ * Read-only view of a flower field of the "Busy Bee" challenge. The flowers
+ * have dense ids from {@code 0} to {@code size() - 1}; the connections are
+ * available as compressed sparse rows and as travel times between two flowers.
+ * <p>Each contribution gets its own copy of the field, which is not used for verifying
+ * its responses; modifying the arrays returned only affects the contribution itself.</p>
+ */
+public interface FlowerGraph {
+
+	/** the travel time of flowers which are not connected */
+	int NONE = Integer.MIN_VALUE;
+
+	/**
+	 * Returns the number of flowers.
+	 * @return the number of flowers
+	 */
+	int size();
+
+	/**
+	 * Returns the id of the flower with the given name.
+	 * @param name the name of the flower
+	 * @return the id, or {@code -1} if there is no such flower
+	 */
+	int id(String name);
+
+	/**
+	 * Returns the name of the flower with the given id.
+	 * @param id the id of the flower
+	 * @return the name, never {@code null}
+	 */
+	String name(int id);
+
+	/**
+	 * Returns the travel time between two flowers.
+	 * @param from the id of the first flower
+	 * @param to the id of the second flower
+	 * @return the travel time, or {@link #NONE} if the flowers are not connected
+	 */
+	int time(int from, int to);
+
+	/**
+	 * Returns the travel times between all flowers as a matrix in row-major
+	 * order, i.e. the time from {@code a} to {@code b} is at index {@code a * size() + b};
+	 * flowers which are not connected have the time {@link #NONE}.
+	 * @return the matrix, or {@code null} if the field is too large for a dense matrix
+	 */
+	int[] matrix();
+
+	/**
+	 * Returns the start of the neighbors of a flower in {@link #targets()} and {@link #times()};
+	 * the neighbors of flower {@code id} are at the indices {@code offsets()[id]} (inclusive)
+	 * to {@code offsets()[id + 1]} (exclusive).
+	 * @return the offsets, {@code size() + 1} entries
+	 */
+	int[] offsets();
+
+	/**
+	 * Returns the neighbor ids of all flowers in ascending order per flower, see {@link #offsets()}.
+	 * @return the neighbor ids
+	 */
+	int[] targets();
+
+	/**
+	 * Returns the travel times to the neighbors of all flowers, see {@link #offsets()}.
+	 * @return the travel times
+	 */
+	int[] times();
+
+}
@@ -3,11 +3,18 @@ package de.engehausen.cc2.api;
 import java.io.OutputStream;
 
 import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
 import de.engehausen.cc2.reporters.Console;
 import de.engehausen.cc2.reporters.Json;
+import de.engehausen.cc2.reporters.JsonLines;
+import de.engehausen.cc2.reporters.Throughput;
 
 /**
- * Reporter for challenge results.
+ * Reporter for challenge results. A reporter may report each record as soon
+ * as it is final ({@link #onRecord(String, Results, String, Record, OutputStream)})
+ * in addition to, or instead of, reporting all results at the end of the run
+ * ({@link #generate(Inputs, OutputStream)}).
  */
 public interface Reporter {
 
@@ -25,6 +32,31 @@ public interface Reporter {
 	 */
 	void generate(Inputs results, OutputStream output);
 
+	/**
+	 * Reports the final record of a contribution for an input as soon as it
+	 * is available. Contributions may run in parallel, so this method may be
+	 * called concurrently. Does nothing by default.
+	 * @param challenge the name of the challenge, as used by {@link Inputs#challenges()}
+	 * @param input the input data
+	 * @param contribution the name of the contribution
+	 * @param record the record
+	 * @param output the stream to write to
+	 */
+	default void onRecord(final String challenge, final Results input, final String contribution, final Record record, final OutputStream output) {
+		// nothing to do by default
+	}
+
+	/**
+	 * Indicates whether {@link #generate(Inputs, OutputStream)} reports the records
+	 * of the inputs. If not, the records are only passed to
+	 * {@link #onRecord(String, Results, String, Record, OutputStream)} and not kept
+	 * until the end of the run.
+	 * @return {@code true} by default
+	 */
+	default boolean usesRecords() {
+		return true;
+	}
+
 	/**
 	 * The name of the reporter.
 	 * @return the name of the reporter.
@@ -39,7 +71,9 @@ public interface Reporter {
 	static Class<? extends Reporter>[] all() {
 		return new Class[] {
 			Console.class,
-			Json.class
+			Json.class,
+			JsonLines.class,
+			Throughput.class
 		};
 	}
 }
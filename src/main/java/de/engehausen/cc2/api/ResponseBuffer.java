@@ -0,0 +1,122 @@
+package de.engehausen.cc2.api;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer collecting a response up to a maximal number of bytes in UTF-8 encoding.
+ * Once the cap is reached, writing fails with a {@link CapReachedException}, so that
+ * a serializer stops instead of rendering the remainder of a large response.
+ */
+public class ResponseBuffer extends Writer {
+
+	/** the marker appended to a truncated response */
+	public static final String TRUNCATED = "...";
+
+	private final StringBuilder buffer;
+	private final int cap;
+	private int bytes;
+	private boolean truncated;
+
+	/**
+	 * Creates the buffer.
+	 * @param cap the maximal number of bytes to collect
+	 */
+	public ResponseBuffer(final int cap) {
+		this.buffer = new StringBuilder(Math.min(cap, 256));
+		this.cap = cap;
+	}
+
+	/**
+	 * Indicates whether the response exceeded the cap.
+	 * @return {@code true} if the response was cut, {@code false} otherwise
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final int c) throws IOException {
+		put((char) c);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		for (int i = off, max = off + len; i < max; i++) {
+			put(cbuf[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		for (int i = off, max = off + len; i < max; i++) {
+			put(str.charAt(i));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+		// nothing to flush
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() {
+		// nothing to close
+	}
+
+	/**
+	 * Returns the collected response, followed by {@link #TRUNCATED} if it was cut.
+	 * @return the collected response, never {@code null}
+	 */
+	@Override
+	public String toString() {
+		return truncated ? buffer + TRUNCATED : buffer.toString();
+	}
+
+	protected void put(final char c) throws IOException {
+		if (!truncated) {
+			final int size = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+			if (bytes + size <= cap) {
+				bytes += size;
+				buffer.append(c);
+				return;
+			}
+			truncated = true;
+			final int last = buffer.length() - 1;
+			if (last >= 0 && Character.isHighSurrogate(buffer.charAt(last))) {
+				// do not leave half of a surrogate pair
+				buffer.setLength(last);
+			}
+		}
+		throw new CapReachedException();
+	}
+
+	/**
+	 * Signals that the cap of the buffer was reached.
+	 */
+	public static class CapReachedException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		public CapReachedException() {
+			super("response cap reached");
+		}
+
+	}
+
+}
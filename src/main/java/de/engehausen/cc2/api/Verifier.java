@@ -1,5 +1,8 @@
 package de.engehausen.cc2.api;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import de.engehausen.cc2.data.Results;
 
 /**
@@ -19,6 +22,28 @@ public interface Verifier<I, D extends Results> {
 	 */
 	String verify(I input, D data);
 
+	/**
+	 * Prepares the verification of responses for the given input, e.g. by building
+	 * indexes of the input data. Called before a contribution is run with the input,
+	 * so that the preparation is not part of the measured time.
+	 * @param data the input data of the challenge, must not be {@code null}
+	 */
+	default void prepare(final D data) {
+		// nothing to prepare
+	}
+
+	/**
+	 * Records the quality of a response which passed verification, such as its
+	 * {@link Results.Record#cost cost} and {@link Results.Record#gap gap} to the optimum.
+	 * Challenges accepting any response within given limits only have a single quality.
+	 * @param input the response which passed verification, must not be {@code null}
+	 * @param data the input data of the challenge, must not be {@code null}
+	 * @param record the record of the response, must not be {@code null}
+	 */
+	default void score(final I input, final D data, final Results.Record record) {
+		// no quality measure
+	}
+
 	/**
 	 * Returns a string representation of the challenge response.
 	 * @param input the challenge response, must not be {@code null}
@@ -26,4 +51,43 @@ public interface Verifier<I, D extends Results> {
 	 */
 	String toString(I input);
 
+	/**
+	 * Writes the string representation of the challenge response.
+	 * Verifiers of potentially large responses should write the representation
+	 * piece by piece, so that a capped output can stop early.
+	 * @param input the challenge response, may be {@code null}
+	 * @param out the writer to write to, must not be {@code null}
+	 * @return {@code true} if a representation was written, {@code false} if there is none
+	 * @throws IOException in case of error, including a reached {@link ResponseBuffer} cap
+	 */
+	default boolean print(final I input, final Writer out) throws IOException {
+		final String result = toString(input);
+		if (result != null) {
+			out.write(result);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a string representation of the challenge response of at most
+	 * the given number of bytes (plus the {@link ResponseBuffer#TRUNCATED} marker).
+	 * @param input the challenge response, may be {@code null}
+	 * @param cap the maximal number of bytes in UTF-8 encoding
+	 * @return a string representation of the response, or {@code null}
+	 */
+	default String toString(final I input, final int cap) {
+		final ResponseBuffer buffer = new ResponseBuffer(cap);
+		try {
+			if (!print(input, buffer)) {
+				return null;
+			}
+		} catch (IOException e) {
+			if (!buffer.isTruncated()) {
+				return null;
+			}
+		}
+		return buffer.toString();
+	}
+
 }
@@ -0,0 +1,477 @@
+package de.engehausen.cc2.data;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+import de.engehausen.cc2.api.Connection;
+
+/**
+ * Compact binary encoding of {@link Inputs}; to be run on the command line
+ * to convert between JSON and the binary format.
+ * <p>The format consists of the magic bytes {@code CC2B}, a format version, a table
+ * of the node names of all busy bee graphs, the time budgets and one section per
+ * challenge. Each section starts with the challenge name and its length in bytes,
+ * so a section can be skipped and read when its challenge is run. Numbers are
+ * variable-length encoded, strings are length-prefixed UTF-8. The edges of a
+ * busy bee graph are stored as three arrays: the node indices of both ends
+ * and the travel times.</p>
+ * <p>Results of previous runs are not part of the encoding.</p>
+ */
+public class BinaryInputs {
+
+	private static final byte[] MAGIC = { 'C', 'C', '2', 'B' };
+	private static final int VERSION = 1;
+	private static final String JSON = ".json";
+	private static final String GZIP = ".gz";
+	private static final ObjectMapper MAPPER = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+
+	private final InputsLoader loader;
+
+	/**
+	 * Creates the reader of the binary inputs of the given loader.
+	 * @param loader the loader of the file, must not be {@code null}
+	 */
+	protected BinaryInputs(final InputsLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Indicates whether the given stream starts with the binary format.
+	 * Reads the first bytes of the stream.
+	 * @param stream the stream to check
+	 * @return {@code true} if the stream holds binary inputs, {@code false} otherwise.
+	 * @throws IOException in case of error
+	 */
+	public static boolean isBinary(final InputStream stream) throws IOException {
+		final byte[] magic = new byte[MAGIC.length];
+		return ByteStreams.read(stream, magic, 0, magic.length) == magic.length && Arrays.equals(MAGIC, magic);
+	}
+
+	/**
+	 * Reads the inputs; the challenge lists are materialized on first access.
+	 * @return the inputs, never {@code null}
+	 * @throws IOException in case of error
+	 */
+	public Inputs load() throws IOException {
+		final Inputs result = new Inputs();
+		try (final CountingInputStream counting = new CountingInputStream(loader.open())) {
+			final Decoder in = new Decoder(counting);
+			if (!isBinary(counting)) {
+				throw new IOException("not in binary format");
+			}
+			final int version = in.readVarInt();
+			if (version != VERSION) {
+				throw new IOException("unsupported format version " + version);
+			}
+			final String[] nodes = new String[in.readVarInt()];
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i] = in.readString();
+			}
+			final int timeouts = in.readVarInt() - 1;
+			if (timeouts >= 0) {
+				result.timeouts = new LinkedHashMap<>();
+				for (int i = 0; i < timeouts; i++) {
+					result.timeouts.put(in.readString(), Long.valueOf(in.readVarLong()));
+				}
+			}
+			for (int sections = in.readVarInt(); sections > 0; sections--) {
+				final String challenge = in.readString();
+				final long length = in.readVarLong();
+				final long offset = counting.getCount();
+				final List<Results> list = new LazyList<>(() -> readSection(challenge, offset, nodes));
+				try {
+					loader.field(challenge).set(result, list);
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+				ByteStreams.skipFully(counting, length);
+			}
+		}
+		return result;
+	}
+
+	protected List<Results> readSection(final String challenge, final long offset, final String[] nodes) throws IOException {
+		try (final InputStream stream = loader.open()) {
+			ByteStreams.skipFully(stream, offset);
+			final Decoder in = new Decoder(stream);
+			final int size = in.readVarInt();
+			final List<Results> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				result.add(readData(challenge, in, nodes));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Writes the given inputs in binary format.
+	 * @param inputs the inputs to write, must not be {@code null}
+	 * @param output the stream to write to, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	public static void write(final Inputs inputs, final OutputStream output) throws IOException {
+		final Map<String, List<? extends Results>> challenges = inputs.challenges();
+		final Map<String, Integer> nodes = new LinkedHashMap<>();
+		if (inputs.beeGraphs != null) {
+			for (final BusyBeeData data : inputs.beeGraphs) {
+				for (final Connection connection : data.connections) {
+					nodes.putIfAbsent(connection.a, Integer.valueOf(nodes.size()));
+					nodes.putIfAbsent(connection.b, Integer.valueOf(nodes.size()));
+				}
+			}
+		}
+		final Encoder out = new Encoder(output);
+		out.write(MAGIC);
+		out.writeVarInt(VERSION);
+		out.writeVarInt(nodes.size());
+		for (final String node : nodes.keySet()) {
+			out.writeString(node);
+		}
+		if (inputs.timeouts == null) {
+			out.writeVarInt(0);
+		} else {
+			out.writeVarInt(inputs.timeouts.size() + 1);
+			for (final Map.Entry<String, Long> entry : inputs.timeouts.entrySet()) {
+				out.writeString(entry.getKey());
+				out.writeVarLong(entry.getValue().longValue());
+			}
+		}
+		out.writeVarInt(challenges.size());
+		for (final Map.Entry<String, List<? extends Results>> entry : challenges.entrySet()) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final Encoder section = new Encoder(bytes);
+			section.writeVarInt(entry.getValue().size());
+			for (final Results data : entry.getValue()) {
+				writeData(entry.getKey(), data, section, nodes);
+			}
+			section.flush();
+			out.writeString(entry.getKey());
+			out.writeVarLong(bytes.size());
+			bytes.writeTo(out);
+		}
+		out.flush();
+	}
+
+	protected static void writeData(final String challenge, final Results data, final Encoder out, final Map<String, Integer> nodes) throws IOException {
+		out.writeString(data.label);
+		out.writeVarLong(data.timeout == null ? 0 : data.timeout.longValue() + 1);
+		switch (challenge) {
+			case Inputs.EDIT_DISTANCES:
+				final EditDistanceData editDistance = (EditDistanceData) data;
+				out.writeString(editDistance.from);
+				out.writeString(editDistance.to);
+				out.writeVarInt(editDistance.distance);
+				break;
+			case Inputs.BEE_GRAPHS:
+				final BusyBeeData busyBee = (BusyBeeData) data;
+				out.writeVarInt(busyBee.connections.size());
+				for (final Connection connection : busyBee.connections) {
+					out.writeVarInt(nodes.get(connection.a).intValue());
+				}
+				for (final Connection connection : busyBee.connections) {
+					out.writeVarInt(nodes.get(connection.b).intValue());
+				}
+				for (final Connection connection : busyBee.connections) {
+					out.writeVarInt(connection.time);
+				}
+				out.writeVarInt(busyBee.maxTime);
+				out.writeBoolean(busyBee.empty);
+				break;
+			case Inputs.PANCAKES:
+				out.writeIntegers(((PancakeFlipperData) data).stack);
+				break;
+			case Inputs.HAPPY_SEVEN:
+				out.writeIntegers(((HappySevenData) data).configuration);
+				break;
+			case Inputs.NOTATION_EXPRESSIONS:
+				final ReversePolishNotationData notation = (ReversePolishNotationData) data;
+				out.writeString(notation.expression);
+				out.writeString(notation.expected == null ? null : notation.expected.toString());
+				break;
+			case Inputs.HUFFMAN_STRINGS:
+				final HuffmanData huffman = (HuffmanData) data;
+				out.writeString(huffman.text);
+				out.writeVarInt(huffman.bitcount);
+				break;
+			case Inputs.XML_EASY:
+			case Inputs.XML_HARD:
+				final XmlData xml = (XmlData) data;
+				out.writeString(xml.xmlIn);
+				out.writeString(xml.parameter);
+				if (xml.xpathAsserts == null) {
+					out.writeVarInt(0);
+				} else {
+					out.writeVarInt(xml.xpathAsserts.size() + 1);
+					for (final String assertion : xml.xpathAsserts) {
+						out.writeString(assertion);
+					}
+				}
+				out.writeString(xml.xmlFile);
+				break;
+			default:
+				throw new IOException("unknown challenge " + challenge);
+		}
+	}
+
+	protected static Results readData(final String challenge, final Decoder in, final String[] nodes) throws IOException {
+		final String label = in.readString();
+		final long timeout = in.readVarLong();
+		final Results result;
+		switch (challenge) {
+			case Inputs.EDIT_DISTANCES:
+				result = new EditDistanceData(in.readString(), in.readString(), in.readVarInt());
+				break;
+			case Inputs.BEE_GRAPHS:
+				final int[] a = new int[in.readVarInt()];
+				final int[] b = new int[a.length];
+				for (int i = 0; i < a.length; i++) {
+					a[i] = in.readVarInt();
+				}
+				for (int i = 0; i < b.length; i++) {
+					b[i] = in.readVarInt();
+				}
+				final List<Connection> connections = new ArrayList<>(a.length);
+				for (int i = 0; i < a.length; i++) {
+					connections.add(new Connection(nodes[a[i]], nodes[b[i]], in.readVarInt()));
+				}
+				result = new BusyBeeData(connections, in.readVarInt(), in.readBoolean());
+				break;
+			case Inputs.PANCAKES:
+				result = new PancakeFlipperData(in.readIntegers());
+				break;
+			case Inputs.HAPPY_SEVEN:
+				result = new HappySevenData(in.readIntegers());
+				break;
+			case Inputs.NOTATION_EXPRESSIONS:
+				final String expression = in.readString();
+				final String expected = in.readString();
+				result = new ReversePolishNotationData(expression, expected == null ? null : new BigDecimal(expected));
+				break;
+			case Inputs.HUFFMAN_STRINGS:
+				result = new HuffmanData(in.readString(), in.readVarInt());
+				break;
+			case Inputs.XML_EASY:
+			case Inputs.XML_HARD:
+				final String xmlIn = in.readString();
+				final String parameter = in.readString();
+				final int asserts = in.readVarInt() - 1;
+				List<String> xpathAsserts = null;
+				if (asserts >= 0) {
+					xpathAsserts = new ArrayList<>(asserts);
+					for (int i = 0; i < asserts; i++) {
+						xpathAsserts.add(in.readString());
+					}
+				}
+				final XmlData xml = new XmlData(xmlIn, parameter, xpathAsserts);
+				xml.xmlFile = in.readString();
+				result = xml;
+				break;
+			default:
+				throw new IOException("unknown challenge " + challenge);
+		}
+		result.label = label;
+		result.timeout = timeout == 0 ? null : Long.valueOf(timeout - 1);
+		return result;
+	}
+
+	/**
+	 * Converts an inputs file into the binary format, or back into JSON
+	 * if the name of the target file ends with {@code .json}, see {@link #write(Inputs, Path)}.
+	 * @param args the source and the target file, either separately or in one string
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final String[] params = args.length == 1 ? args[0].split(" ") : args;
+		if (params.length != 2 || params[0].startsWith("$") || params[1].startsWith("$")) {
+			System.err.println("*** please specify the source and the target file, e.g. -Din=inputs.json -Dout=inputs.bin");
+			return;
+		}
+		write(InputsLoader.load(Paths.get(params[0])), Paths.get(params[1]));
+	}
+
+	/**
+	 * Writes the inputs to the given file: as JSON if the name of the file ends
+	 * with {@code .json}, in the binary format otherwise. The file is compressed
+	 * with gzip if its name additionally ends with {@code .gz}, e.g. {@code inputs.json.gz}.
+	 * Values which are {@code null} are left out of the JSON.
+	 * @param inputs the inputs to write, must not be {@code null}
+	 * @param file the target file, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	public static void write(final Inputs inputs, final Path file) throws IOException {
+		String name = file.getFileName().toString();
+		final boolean gzip = name.endsWith(GZIP);
+		if (gzip) {
+			name = name.substring(0, name.length() - GZIP.length());
+		}
+		final OutputStream stream = Files.newOutputStream(file);
+		try (final OutputStream output = new BufferedOutputStream(gzip ? new GZIPOutputStream(stream) : stream)) {
+			if (name.endsWith(JSON)) {
+				MAPPER.writeValue(output, inputs);
+			} else {
+				write(inputs, output);
+			}
+		}
+	}
+
+	/**
+	 * Writes variable-length numbers and length-prefixed strings.
+	 */
+	protected static class Encoder extends DataOutputStream {
+
+		Encoder(final OutputStream out) {
+			super(out);
+		}
+
+		/**
+		 * Writes a zig-zag encoded variable-length integer.
+		 * @param value the value
+		 * @throws IOException in case of error
+		 */
+		public void writeVarInt(final int value) throws IOException {
+			writeUnsigned(((value << 1) ^ (value >> 31)) & 0xffffffffL);
+		}
+
+		/**
+		 * Writes a zig-zag encoded variable-length long.
+		 * @param value the value
+		 * @throws IOException in case of error
+		 */
+		public void writeVarLong(final long value) throws IOException {
+			writeUnsigned((value << 1) ^ (value >> 63));
+		}
+
+		private void writeUnsigned(final long value) throws IOException {
+			long remaining = value;
+			while ((remaining & ~0x7fL) != 0) {
+				write((int) ((remaining & 0x7f) | 0x80));
+				remaining >>>= 7;
+			}
+			write((int) remaining);
+		}
+
+		/**
+		 * Writes a string as its UTF-8 length, plus one, followed by its UTF-8 bytes;
+		 * {@code null} is written as length zero.
+		 * @param value the string, may be {@code null}
+		 * @throws IOException in case of error
+		 */
+		public void writeString(final String value) throws IOException {
+			if (value == null) {
+				writeVarInt(0);
+			} else {
+				final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				writeVarInt(bytes.length + 1);
+				write(bytes);
+			}
+		}
+
+		void writeIntegers(final List<Integer> values) throws IOException {
+			if (values == null) {
+				writeVarInt(0);
+			} else {
+				writeVarInt(values.size() + 1);
+				for (final Integer value : values) {
+					writeVarInt(value.intValue());
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Reads variable-length numbers and length-prefixed strings.
+	 */
+	protected static class Decoder extends DataInputStream {
+
+		Decoder(final InputStream in) {
+			super(in);
+		}
+
+		/**
+		 * Reads a zig-zag encoded variable-length integer.
+		 * @return the value
+		 * @throws IOException in case of error
+		 */
+		public int readVarInt() throws IOException {
+			final long value = readUnsigned();
+			return (int) ((value >>> 1) ^ -(value & 1));
+		}
+
+		/**
+		 * Reads a zig-zag encoded variable-length long.
+		 * @return the value
+		 * @throws IOException in case of error
+		 */
+		public long readVarLong() throws IOException {
+			final long value = readUnsigned();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private long readUnsigned() throws IOException {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				final int b = read();
+				if (b < 0) {
+					throw new EOFException();
+				}
+				result |= (long) (b & 0x7f) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new IOException("malformed number");
+		}
+
+		/**
+		 * Reads a string written by {@link Encoder#writeString(String)}.
+		 * @return the string, may be {@code null}
+		 * @throws IOException in case of error
+		 */
+		public String readString() throws IOException {
+			final int length = readVarInt() - 1;
+			if (length < 0) {
+				return null;
+			}
+			final byte[] bytes = new byte[length];
+			readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		List<Integer> readIntegers() throws IOException {
+			final int size = readVarInt() - 1;
+			if (size < 0) {
+				return null;
+			}
+			final List<Integer> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				result.add(Integer.valueOf(readVarInt()));
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,184 @@
+package de.engehausen.cc2.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.api.FlowerGraph;
+
+/**
+ * Read-only index of a busy bee graph: the flowers get dense ids from {@code 0}
+ * to {@code size() - 1}, the connections are stored in compressed sparse rows
+ * and, for graphs of up to {@value #MAX_DENSE} flowers, in a dense matrix of
+ * travel times. If a pair of flowers is connected more than once, the last
+ * connection counts.
+ * <p>The index of a {@link BusyBeeData} is built once and shared, see {@link #of(BusyBeeData)}.
+ * It is used for verification; contributions get their own {@link #copy()}.</p>
+ */
+public class BusyBeeGraph implements FlowerGraph {
+
+	/** the maximal number of flowers for which a dense matrix of travel times is kept */
+	public static final int MAX_DENSE = 1024;
+
+	private static final LoadingCache<BusyBeeData, BusyBeeGraph> GRAPHS = CacheBuilder
+		.newBuilder()
+		.weakKeys()
+		.build(CacheLoader.from(data -> new BusyBeeGraph(data.connections)));
+
+	private final String[] names;
+	private final Map<String, Integer> ids;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] times;
+	private final int[] matrix;
+
+	/**
+	 * Builds the index of the given connections.
+	 * @param connections the connections, must not be {@code null}
+	 */
+	public BusyBeeGraph(final List<Connection> connections) {
+		ids = new HashMap<>();
+		final Map<Long, Integer> edges = new HashMap<>();
+		for (final Connection connection : connections) {
+			final long a = id(connection.a, ids);
+			final long b = id(connection.b, ids);
+			final Integer time = Integer.valueOf(connection.time);
+			edges.put(Long.valueOf(a << 32 | b), time);
+			edges.put(Long.valueOf(b << 32 | a), time);
+		}
+		final int size = ids.size();
+		names = new String[size];
+		ids.forEach((name, id) -> names[id.intValue()] = name);
+		final long[] keys = edges.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+		offsets = new int[size + 1];
+		targets = new int[keys.length];
+		times = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			offsets[1 + (int) (keys[i] >>> 32)]++;
+			targets[i] = (int) keys[i];
+			times[i] = edges.get(Long.valueOf(keys[i])).intValue();
+		}
+		for (int i = 0; i < size; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		if (size <= MAX_DENSE) {
+			matrix = new int[size * size];
+			Arrays.fill(matrix, NONE);
+			for (int from = 0; from < size; from++) {
+				for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+					matrix[from * size + targets[i]] = times[i];
+				}
+			}
+		} else {
+			matrix = null;
+		}
+	}
+
+	private BusyBeeGraph(final BusyBeeGraph graph) {
+		names = graph.names;
+		ids = graph.ids;
+		offsets = graph.offsets.clone();
+		targets = graph.targets.clone();
+		times = graph.times.clone();
+		matrix = graph.matrix == null ? null : graph.matrix.clone();
+	}
+
+	/**
+	 * Returns the index of the given input data. The index is built on first
+	 * request and kept as long as the input data is referenced.
+	 * @param data the input data, must not be {@code null}
+	 * @return the index, never {@code null}
+	 */
+	public static BusyBeeGraph of(final BusyBeeData data) {
+		return GRAPHS.getUnchecked(data);
+	}
+
+	/**
+	 * Returns a copy of this index whose arrays may be modified without
+	 * affecting this index.
+	 * @return the copy, never {@code null}
+	 */
+	public BusyBeeGraph copy() {
+		return new BusyBeeGraph(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int id(final String name) {
+		final Integer result = ids.get(name);
+		return result == null ? -1 : result.intValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String name(final int id) {
+		return names[id];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int time(final int from, final int to) {
+		if (matrix != null) {
+			return matrix[from * names.length + to];
+		}
+		final int index = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+		return index < 0 ? NONE : times[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] matrix() {
+		return matrix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] offsets() {
+		return offsets;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] targets() {
+		return targets;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] times() {
+		return times;
+	}
+
+	private static long id(final String name, final Map<String, Integer> ids) {
+		return ids.computeIfAbsent(name, key -> Integer.valueOf(ids.size())).longValue();
+	}
+
+}
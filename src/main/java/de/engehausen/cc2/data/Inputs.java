@@ -1,7 +1,12 @@
 package de.engehausen.cc2.data;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
 /**
  * Data object holding all input data which is used to
@@ -12,6 +17,23 @@ import java.util.List;
  */
 public class Inputs {
 
+	/** challenge name of the list of edit distance data */
+	public static final String EDIT_DISTANCES = "editDistances";
+	/** challenge name of the list of busy bee data */
+	public static final String BEE_GRAPHS = "beeGraphs";
+	/** challenge name of the list of pancake flipper data */
+	public static final String PANCAKES = "pancakes";
+	/** challenge name of the list of happy seven data */
+	public static final String HAPPY_SEVEN = "happySeven";
+	/** challenge name of the list of reverse polish notation data */
+	public static final String NOTATION_EXPRESSIONS = "notationExpressions";
+	/** challenge name of the list of huffman coding data */
+	public static final String HUFFMAN_STRINGS = "huffmanStrings";
+	/** challenge name of the list of "easy" xml transformation data */
+	public static final String XML_EASY = "xmlEasy";
+	/** challenge name of the list of "hard" xml transformation data */
+	public static final String XML_HARD = "xmlHard";
+
 	/** list of edit distance data */
 	public List<EditDistanceData> editDistances;
 	/** list of busy bee data */
@@ -32,6 +54,10 @@ public class Inputs {
 	/** list of "hard" xml transformation data */
 	public List<XmlData> xmlHard;
 
+	/** time budgets in milliseconds per invocation, keyed by challenge name (e.g. {@code beeGraphs}) */
+	@JsonInclude(Include.NON_NULL)
+	public Map<String, Long> timeouts;
+
 	/**
 	 * Returns a list of all results
 	 * @return a list of all results
@@ -49,6 +75,31 @@ public class Inputs {
 		return result;
 	}
 
+	/**
+	 * Returns the lists of data keyed by challenge name. The challenge
+	 * names are the names of the lists in the JSON representation.
+	 * Lists which are not defined are not included.
+	 * @return the lists of data keyed by challenge name
+	 */
+	public Map<String, List<? extends Results>> challenges() {
+		final Map<String, List<? extends Results>> result = new LinkedHashMap<>();
+		put(EDIT_DISTANCES, editDistances, result);
+		put(BEE_GRAPHS, beeGraphs, result);
+		put(PANCAKES, pancakes, result);
+		put(HAPPY_SEVEN, happySeven, result);
+		put(NOTATION_EXPRESSIONS, notationExpressions, result);
+		put(HUFFMAN_STRINGS, huffmanStrings, result);
+		put(XML_EASY, xmlEasy, result);
+		put(XML_HARD, xmlHard, result);
+		return result;
+	}
+
+	private void put(final String name, final List<? extends Results> list, final Map<String, List<? extends Results>> collector) {
+		if (list != null) {
+			collector.put(name, list);
+		}
+	}
+
 	private void add(final List<? extends Results> list, final List<List<? extends Results>> collector) {
 		if (list != null && !list.isEmpty()) {
 			collector.add(list);
@@ -0,0 +1,148 @@
+package de.engehausen.cc2.data;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Loads {@link Inputs} from a JSON file without holding all of the input data
+ * on the heap. A first pass streams through the file and only records where
+ * each challenge list starts; the elements of a list are read once the list
+ * is accessed, i.e. when the challenge is run, and dropped again once the
+ * challenge is finished (see {@link LazyList#release()}). Files compressed with gzip
+ * are read directly, as are files in the {@link BinaryInputs binary format}.
+ */
+public class InputsLoader {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final int GZIP_MAGIC_1 = 0x1f;
+	private static final int GZIP_MAGIC_2 = 0x8b;
+
+	private final Path file;
+	private final boolean gzip;
+
+	/**
+	 * Creates the loader for the given file.
+	 * @param file the inputs file, either plain or gzip-compressed JSON, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	public InputsLoader(final Path file) throws IOException {
+		this.file = file;
+		this.gzip = isGzip(file);
+	}
+
+	/**
+	 * Loads the inputs of the given file.
+	 * @param file the inputs file, either plain or gzip-compressed JSON or binary inputs, must not be {@code null}
+	 * @return the inputs, with lazily materialized challenge lists
+	 * @throws IOException in case of error
+	 */
+	public static Inputs load(final Path file) throws IOException {
+		return new InputsLoader(file).load();
+	}
+
+	/**
+	 * Loads the inputs. Challenge lists are materialized on first access,
+	 * all other values are read right away.
+	 * @return the inputs, never {@code null}
+	 * @throws IOException in case of error
+	 */
+	public Inputs load() throws IOException {
+		try (final InputStream stream = open()) {
+			if (BinaryInputs.isBinary(stream)) {
+				return new BinaryInputs(this).load();
+			}
+		}
+		final Inputs result = new Inputs();
+		try (final InputStream stream = open(); final JsonParser parser = MAPPER.getFactory().createParser(stream)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("inputs must be a JSON object: " + file);
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String name = parser.getCurrentName();
+				final Field field = field(name);
+				final JsonToken token = parser.nextToken();
+				final Object value;
+				if (token == JsonToken.START_ARRAY && field.getType() == List.class) {
+					value = lazyList(parser.getTokenLocation().getByteOffset(), MAPPER.constructType(((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]));
+					parser.skipChildren();
+				} else {
+					value = MAPPER.readValue(parser, MAPPER.constructType(field.getGenericType()));
+				}
+				try {
+					field.set(result, value);
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		return result;
+	}
+
+	protected LazyList<Results> lazyList(final long offset, final JavaType elementType) {
+		return new LazyList<>(() -> readList(offset, elementType));
+	}
+
+	/**
+	 * Reads the list starting at the given offset.
+	 * @param <T> the element type
+	 * @param offset the offset of the start of the array in the uncompressed file
+	 * @param elementType the element type
+	 * @return the list, never {@code null}
+	 * @throws IOException in case of error
+	 */
+	protected <T> List<T> readList(final long offset, final JavaType elementType) throws IOException {
+		try (final InputStream stream = open()) {
+			ByteStreams.skipFully(stream, offset);
+			try (final JsonParser parser = MAPPER.getFactory().createParser(stream)) {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					throw new IOException("expected an array at " + offset + " in " + file);
+				}
+				final List<T> result = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					result.add(MAPPER.readValue(parser, elementType));
+				}
+				return result;
+			}
+		}
+	}
+
+	protected InputStream open() throws IOException {
+		final InputStream stream = new FileInputStream(file.toFile());
+		return gzip ? new BufferedInputStream(new GZIPInputStream(stream)) : new BufferedInputStream(stream);
+	}
+
+	protected static boolean isGzip(final Path file) throws IOException {
+		try (final InputStream stream = Files.newInputStream(file)) {
+			return stream.read() == GZIP_MAGIC_1 && stream.read() == GZIP_MAGIC_2;
+		}
+	}
+
+	protected Field field(final String name) throws IOException {
+		try {
+			final Field result = Inputs.class.getField(name);
+			if (!Modifier.isStatic(result.getModifiers())) {
+				return result;
+			}
+		} catch (NoSuchFieldException e) {
+			// fall through
+		}
+		throw new IOException("unknown input " + name + " in " + file);
+	}
+
+}
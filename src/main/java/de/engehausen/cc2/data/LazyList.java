@@ -0,0 +1,106 @@
+package de.engehausen.cc2.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * An unmodifiable list of input data whose elements are materialized on first access.
+ * <p>Users of the list may {@link #acquire()} it and {@link #release()} it when done;
+ * once the last user releases the list, the elements are dropped and materialized
+ * again on the next access. The records of the elements are kept across releases,
+ * so only the input data itself is read again.</p>
+ * @param <T> the element type
+ */
+public class LazyList<T extends Results> extends AbstractList<T> implements RandomAccess {
+
+	private final Callable<List<T>> loader;
+	private volatile List<T> elements;
+	private List<Map<String, Record>> records;
+	private int users;
+
+	/**
+	 * Creates the list.
+	 * @param loader the loader of the elements, called on first access after creation or release, must not be {@code null}
+	 */
+	public LazyList(final Callable<List<T>> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Indicates whether the elements have been materialized.
+	 * @return {@code true} if the elements have been materialized, {@code false} otherwise.
+	 */
+	public boolean isLoaded() {
+		return elements != null;
+	}
+
+	/**
+	 * Registers a user of the list; the elements are kept until the user
+	 * {@link #release() releases} the list.
+	 */
+	public synchronized void acquire() {
+		users++;
+	}
+
+	/**
+	 * Unregisters a user of the list. If no user is left, the elements are dropped;
+	 * their records are kept and attached again when the elements are materialized again.
+	 */
+	public synchronized void release() {
+		if (--users > 0 || elements == null) {
+			return;
+		}
+		records = new ArrayList<>(elements.size());
+		for (final T element : elements) {
+			records.add(element.results);
+		}
+		elements = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T get(final int index) {
+		return elements().get(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return elements().size();
+	}
+
+	protected List<T> elements() {
+		List<T> result = elements;
+		if (result == null) {
+			synchronized (this) {
+				result = elements;
+				if (result == null) {
+					try {
+						result = loader.call();
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+					if (records != null) {
+						for (int i = 0; i < result.size(); i++) {
+							result.get(i).results = records.get(i);
+						}
+						records = null;
+					}
+					elements = result;
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -1,5 +1,6 @@
 package de.engehausen.cc2.data;
 
+import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -20,6 +21,12 @@ public abstract class Results {
 	 */
 	@JsonInclude(Include.NON_NULL)
 	public String label;
+	/**
+	 * Time budget in milliseconds per invocation for this input,
+	 * overriding the budget of the challenge.
+	 */
+	@JsonInclude(Include.NON_NULL)
+	public Long timeout;
 
 	/**
 	 * A result record.
@@ -36,6 +43,45 @@ public abstract class Results {
 		/** challenge solution response in string form */
 		@JsonInclude(Include.NON_NULL)
 		public String response;
+		/** flag indicating the invocation exceeded its time budget */
+		@JsonInclude(Include.NON_DEFAULT)
+		public boolean timedOut;
+		/** diagnostic information, such as the stack of a timed out invocation */
+		@JsonInclude(Include.NON_NULL)
+		public String diagnostics;
+		/** CPU time of the invoking thread in milliseconds, averaged per invocation */
+		@JsonInclude(Include.NON_NULL)
+		public Double cpuMillis;
+		/** bytes allocated by the invoking thread, averaged per invocation */
+		@JsonInclude(Include.NON_NULL)
+		public Long allocatedBytes;
+		/** number of garbage collections during the measured invocations */
+		@JsonInclude(Include.NON_NULL)
+		public Long gcCount;
+		/** accumulated garbage collection time in milliseconds during the measured invocations */
+		@JsonInclude(Include.NON_NULL)
+		public Long gcMillis;
+		/** number of measured invocations during which a garbage collection happened */
+		@JsonInclude(Include.NON_NULL)
+		public Integer gcSamples;
+		/** the cost of the response, e.g. the time of a busy bee path */
+		@JsonInclude(Include.NON_NULL)
+		public Long cost;
+		/** the percentage by which the cost exceeds a lower bound of the optimal cost */
+		@JsonInclude(Include.NON_NULL)
+		public Double gap;
+		/** milliseconds until the first valid intermediate response was published */
+		@JsonInclude(Include.NON_NULL)
+		public Double firstMillis;
+		/** milliseconds until the best intermediate response was published */
+		@JsonInclude(Include.NON_NULL)
+		public Double bestMillis;
+		/** the improvements of the published responses over time */
+		@JsonInclude(Include.NON_NULL)
+		public List<Improvement> improvements;
+		/** distribution of the execution times, if measured statistically */
+		@JsonInclude(Include.NON_NULL)
+		public Statistics statistics;
 
 		/**
 		 * Creates the result record.
@@ -56,4 +102,44 @@ public abstract class Results {
 
 	}
 
+	/**
+	 * A published response which improved on the previous ones.
+	 */
+	public static class Improvement {
+
+		/** milliseconds since the start of the invocation */
+		public double millis;
+		/** the cost of the response */
+		public long cost;
+		/** the percentage by which the cost exceeds a lower bound of the optimal cost */
+		@JsonInclude(Include.NON_NULL)
+		public Double gap;
+
+	}
+
+	/**
+	 * Statistics of the execution time samples of a record.
+	 * All times are in milliseconds.
+	 */
+	public static class Statistics {
+
+		/** the number of samples */
+		public int samples;
+		/** the mean execution time */
+		public double mean;
+		/** the half-width of the 99.9% confidence interval of the mean */
+		public double error;
+		/** the minimal execution time */
+		public double min;
+		/** the maximal execution time */
+		public double max;
+		/** the median execution time */
+		public double p50;
+		/** the 90th percentile of the execution times */
+		public double p90;
+		/** the 99th percentile of the execution times */
+		public double p99;
+
+	}
+
 }
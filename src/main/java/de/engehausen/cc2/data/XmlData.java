@@ -12,6 +12,9 @@ public class XmlData extends Results {
 
 	/** the resource name of the XML file to transform (must be on classpath) */
 	public String xmlIn;
+	/** the path of an XML file on disk to transform instead of the resource; such a file is always streamed */
+	@JsonInclude(Include.NON_NULL)
+	public String xmlFile;
 	/** parameters (flags) for the transformation */
 	@JsonInclude(Include.NON_NULL)
 	public String parameter;
@@ -0,0 +1,121 @@
+package de.engehausen.cc2.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The index of the contributions on the classpath. Each line of an index file
+ * holds the class name of a {@code package-info} carrying the contribution
+ * annotation, followed by the resources the contribution refers to, separated
+ * by tabs. Every classpath root may contain an index file; all of them are merged.
+ * Note that this class must not depend on other classes of the project, as it
+ * is compiled ahead of them for the annotation processor.
+ */
+public class ContributionIndex {
+
+	/** the resource name of the index files */
+	public static final String LOCATION = "META-INF/cc2/contributions.idx";
+
+	/** the name of the annotation marking a contribution */
+	static final String ANNOTATION = "de.engehausen.cc2.api.Contribution";
+
+	private static final char SEPARATOR = '\t';
+	private static final String COMMENT = "#";
+
+	private final Map<String, List<String>> entries;
+
+	/**
+	 * Creates the index.
+	 * @param entries the {@code package-info} class names mapped to their resources, must not be {@code null}
+	 */
+	public ContributionIndex(final Map<String, List<String>> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * Loads the index files visible to the given class loader.
+	 * @param loader the class loader, must not be {@code null}
+	 * @return the merged index, or empty if there is no index file
+	 * @throws IOException in case of error
+	 */
+	public static Optional<ContributionIndex> load(final ClassLoader loader) throws IOException {
+		final Enumeration<URL> urls = loader.getResources(LOCATION);
+		if (!urls.hasMoreElements()) {
+			return Optional.empty();
+		}
+		final Map<String, List<String>> entries = new TreeMap<>();
+		while (urls.hasMoreElements()) {
+			try (final InputStream stream = urls.nextElement().openStream()) {
+				read(new InputStreamReader(stream, StandardCharsets.UTF_8), entries);
+			}
+		}
+		return Optional.of(new ContributionIndex(entries));
+	}
+
+	/**
+	 * Returns the class names of the {@code package-info} classes of the contributions.
+	 * @return the class names, in alphabetical order
+	 */
+	public Set<String> classNames() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Returns the resources of the given contribution.
+	 * @param className the class name of the {@code package-info} of the contribution
+	 * @return the resources, e.g. {@code /examples/rpnDemo.lisp}, never {@code null}
+	 */
+	public List<String> resources(final String className) {
+		return entries.getOrDefault(className, Collections.emptyList());
+	}
+
+	/**
+	 * Reads index entries.
+	 * @param reader the reader to read from, must not be {@code null}
+	 * @param entries the map to add the entries to, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	static void read(final Reader reader, final Map<String, List<String>> entries) throws IOException {
+		final BufferedReader lines = new BufferedReader(reader);
+		for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith(COMMENT)) {
+				final String[] parts = line.split(String.valueOf(SEPARATOR));
+				entries.put(parts[0], Collections.unmodifiableList(Arrays.asList(parts).subList(1, parts.length)));
+			}
+		}
+	}
+
+	/**
+	 * Writes index entries.
+	 * @param entries the entries to write, must not be {@code null}
+	 * @param writer the writer to write to, must not be {@code null}
+	 * @throws IOException in case of error
+	 */
+	static void write(final Map<String, List<String>> entries, final Writer writer) throws IOException {
+		writer.write(COMMENT + " contributions, written by " + ContributionIndexer.class.getName() + '\n');
+		for (final Map.Entry<String, List<String>> entry : entries.entrySet()) {
+			writer.write(entry.getKey());
+			for (final String resource : entry.getValue()) {
+				writer.write(SEPARATOR);
+				writer.write(resource);
+			}
+			writer.write('\n');
+		}
+	}
+
+}
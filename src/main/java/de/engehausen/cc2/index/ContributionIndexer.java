@@ -0,0 +1,108 @@
+package de.engehausen.cc2.index;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor writing the {@link ContributionIndex} of the packages
+ * annotated as contribution. Entries of an index written by a previous,
+ * possibly partial compilation into the same output are kept.
+ */
+@SupportedAnnotationTypes(ContributionIndex.ANNOTATION)
+public class ContributionIndexer extends AbstractProcessor {
+
+	private static final String AUTHORS = "authors";
+	private static final String PACKAGE_INFO = ".package-info";
+
+	private final Map<String, List<String>> entries = new TreeMap<>();
+	private boolean found;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		for (final TypeElement annotation : annotations) {
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.PACKAGE) {
+					entries.put(((PackageElement) element).getQualifiedName() + PACKAGE_INFO, resources(element, annotation));
+					found = true;
+				}
+			}
+		}
+		if (roundEnv.processingOver() && found) {
+			try {
+				write();
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write " + ContributionIndex.LOCATION + ": " + e);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the resources the contribution annotation of the given package refers to.
+	 * @param element the package element
+	 * @param annotation the contribution annotation type
+	 * @return the resource names, never {@code null}
+	 */
+	protected List<String> resources(final Element element, final TypeElement annotation) {
+		final List<String> result = new ArrayList<>();
+		for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (mirror.getAnnotationType().asElement().equals(annotation)) {
+				for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+					final Object value = entry.getValue().getValue();
+					if (value instanceof String && !AUTHORS.contentEquals(entry.getKey().getSimpleName()) && !((String) value).isEmpty()) {
+						result.add((String) value);
+					}
+				}
+			}
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private void write() throws IOException {
+		final Map<String, List<String>> merged = new TreeMap<>();
+		try (final Reader reader = new InputStreamReader(processingEnv
+			.getFiler()
+			.getResource(StandardLocation.CLASS_OUTPUT, "", ContributionIndex.LOCATION)
+			.openInputStream(), StandardCharsets.UTF_8)) {
+			ContributionIndex.read(reader, merged);
+		} catch (IOException | IllegalArgumentException e) {
+			// no previous index
+		}
+		merged.putAll(entries);
+		final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ContributionIndex.LOCATION);
+		try (final Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+			ContributionIndex.write(merged, writer);
+		}
+	}
+
+}
@@ -0,0 +1,7 @@
+/**
+ * Build-time index of the contributions.
+ * The {@link de.engehausen.cc2.index.ContributionIndexer} writes the index while
+ * compiling; the {@link de.engehausen.cc2.Executor} reads it with
+ * {@link de.engehausen.cc2.index.ContributionIndex} instead of scanning the classpath.
+ */
+package de.engehausen.cc2.index;
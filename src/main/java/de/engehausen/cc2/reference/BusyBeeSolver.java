@@ -0,0 +1,447 @@
+package de.engehausen.cc2.reference;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import de.engehausen.cc2.api.FlowerGraph;
+import de.engehausen.cc2.data.BinaryInputs;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.InputsLoader;
+
+/**
+ * Computes the fastest path of the bee through a flower field, i.e. the
+ * shortest Hamiltonian path of the graph. Sparse fields of up to {@value #MAX_HELD_KARP}
+ * flowers and dense ones of up to {@value #MAX_DENSE_HELD_KARP} flowers are solved by
+ * dynamic programming over the sets of visited flowers (Held-Karp); all others by a
+ * branch-and-bound search which is run in parallel on a fork/join pool. The search
+ * bounds the rest of a path by a 1-tree of the flowers not yet visited, with the
+ * penalties of the {@link PathBound} of the field added to the travel times.
+ * <p>The search of large fields may be cut off by a time limit; the solution then
+ * is the best path found so far and not known to be optimal.</p>
+ */
+public class BusyBeeSolver {
+
+	/** the maximal number of flowers of sparse fields solved by dynamic programming */
+	public static final int MAX_HELD_KARP = 20;
+	/** the maximal number of flowers of dense fields solved by dynamic programming */
+	public static final int MAX_DENSE_HELD_KARP = 12;
+	/** the share of all possible connections from which on a field counts as dense */
+	public static final double DENSE = 0.3;
+
+	private static final int INFINITE = Integer.MAX_VALUE;
+	private static final double EPSILON = 1e-6;
+	private static final int SPLIT_DEPTH = 3;
+	private static final int CHECK_INTERVAL = 1 << 12;
+
+	private final ForkJoinPool pool;
+	private final long timeLimit;
+
+	/**
+	 * Creates a solver running on the common fork/join pool without time limit.
+	 */
+	public BusyBeeSolver() {
+		this(ForkJoinPool.commonPool(), 0);
+	}
+
+	/**
+	 * Creates a solver.
+	 * @param pool the pool running the branch-and-bound search, must not be {@code null}
+	 * @param timeLimit the time limit of the search in milliseconds, {@code 0} for none
+	 */
+	public BusyBeeSolver(final ForkJoinPool pool, final long timeLimit) {
+		this.pool = pool;
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * The fastest path through a flower field.
+	 */
+	public static class Solution {
+
+		/** the flower ids of the path, or {@code null} if there is no path */
+		public int[] path;
+		/** the time the path takes */
+		public int time;
+		/** flag indicating that the path is known to be the fastest one, or known not to exist */
+		public boolean optimal;
+
+		/**
+		 * Creates the solution.
+		 * @param path the flower ids of the path, or {@code null} if there is no path
+		 * @param time the time the path takes
+		 * @param optimal flag indicating that the result is known to be optimal
+		 */
+		public Solution(final int[] path, final int time, final boolean optimal) {
+			this.path = path;
+			this.time = time;
+			this.optimal = optimal;
+		}
+
+	}
+
+	/**
+	 * Computes the fastest path visiting all flowers of the given field.
+	 * @param graph the flower field, must not be {@code null}
+	 * @return the solution, never {@code null}
+	 */
+	public Solution solve(final FlowerGraph graph) {
+		if (graph.size() <= 1) {
+			return new Solution(new int[graph.size()], 0, true);
+		}
+		return isDynamic(graph) ? heldKarp(graph) : branchAndBound(graph);
+	}
+
+	/**
+	 * Indicates whether the given field is solved by dynamic programming. Its time and
+	 * memory grow exponentially with the number of flowers, but only with the paths
+	 * actually present, which are few in sparse fields. The bound of the branch-and-bound
+	 * search is tight in dense fields, but weak in sparse ones barely having a path.
+	 * @param graph the flower field
+	 * @return {@code true} for dynamic programming, {@code false} for branch-and-bound
+	 */
+	protected static boolean isDynamic(final FlowerGraph graph) {
+		final int size = graph.size();
+		if (size <= MAX_DENSE_HELD_KARP) {
+			return true;
+		}
+		// the connections are held in both directions
+		return size <= MAX_HELD_KARP && graph.targets().length < DENSE * size * (size - 1);
+	}
+
+	/**
+	 * Solves the given field by dynamic programming: the fastest path through
+	 * each set of flowers ending at each of its flowers is computed from the
+	 * paths through the set without that flower.
+	 * @param graph the flower field with at most {@value #MAX_HELD_KARP} flowers
+	 * @return the solution, never {@code null}
+	 */
+	protected Solution heldKarp(final FlowerGraph graph) {
+		final int size = graph.size();
+		final int[] offsets = graph.offsets();
+		final int[] targets = graph.targets();
+		final int[] times = graph.times();
+		final int full = (1 << size) - 1;
+		final int[] best = new int[(full + 1) * size];
+		Arrays.fill(best, INFINITE);
+		for (int id = 0; id < size; id++) {
+			best[(1 << id) * size + id] = 0;
+		}
+		for (int set = 1; set < full; set++) {
+			for (int last = 0; last < size; last++) {
+				final int time = best[set * size + last];
+				if (time == INFINITE) {
+					continue;
+				}
+				for (int i = offsets[last]; i < offsets[last + 1]; i++) {
+					final int next = targets[i];
+					if ((set & 1 << next) == 0) {
+						final int index = (set | 1 << next) * size + next;
+						best[index] = Math.min(best[index], time + times[i]);
+					}
+				}
+			}
+		}
+		int last = -1;
+		int time = INFINITE;
+		for (int id = 0; id < size; id++) {
+			if (best[full * size + id] < time) {
+				time = best[full * size + id];
+				last = id;
+			}
+		}
+		if (last < 0) {
+			return new Solution(null, 0, true);
+		}
+		// walk back through the sets
+		final int[] path = new int[size];
+		int set = full;
+		for (int position = size - 1; position > 0; position--) {
+			path[position] = last;
+			final int rest = set & ~(1 << last);
+			final int target = best[set * size + last];
+			for (int i = offsets[last]; i < offsets[last + 1]; i++) {
+				final int previous = targets[i];
+				if ((rest & 1 << previous) != 0 && best[rest * size + previous] != INFINITE && best[rest * size + previous] + times[i] == target) {
+					last = previous;
+					break;
+				}
+			}
+			set = rest;
+		}
+		path[0] = last;
+		return new Solution(path, time, true);
+	}
+
+	/**
+	 * Solves the given field by a parallel branch-and-bound search.
+	 * @param graph the flower field
+	 * @return the solution, never {@code null}
+	 */
+	protected Solution branchAndBound(final FlowerGraph graph) {
+		final long deadline = timeLimit > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit) : Long.MAX_VALUE;
+		// the penalties of the bound of the whole field are reused for the bounds of all branches
+		final PathBound bound = new PathBound(graph);
+		if (bound.compute(0) == PathBound.UNREACHABLE) {
+			return new Solution(null, 0, true);
+		}
+		final Search search = new Search(graph, bound.penalties(), deadline);
+		pool.invoke(search.new Branch(new int[graph.size()], 0, new boolean[graph.size()], 0));
+		return new Solution(search.path, search.path == null ? 0 : search.time, !search.stopped.get());
+	}
+
+	/**
+	 * The state of a branch-and-bound search shared by all branches.
+	 */
+	protected static class Search {
+
+		final FlowerGraph graph;
+		final int size;
+		final int[] offsets;
+		// the neighbors of each flower ordered by travel time
+		final int[] targets;
+		final int[] times;
+		// the travel times plus the penalties of both flowers
+		final double[] reduced;
+		final double[] penalties;
+		final long deadline;
+		final AtomicBoolean stopped;
+		volatile int time;
+		int[] path;
+
+		Search(final FlowerGraph graph, final double[] penalties, final long deadline) {
+			this.graph = graph;
+			this.size = graph.size();
+			this.offsets = graph.offsets();
+			this.targets = graph.targets().clone();
+			this.times = graph.times().clone();
+			this.reduced = new double[targets.length];
+			this.penalties = penalties;
+			this.deadline = deadline;
+			this.stopped = new AtomicBoolean();
+			this.time = INFINITE;
+			final long[] edges = new long[targets.length];
+			for (int id = 0; id < size; id++) {
+				final int from = offsets[id];
+				final int to = offsets[id + 1];
+				for (int i = from; i < to; i++) {
+					edges[i] = (long) times[i] << 32 | targets[i];
+				}
+				Arrays.sort(edges, from, to);
+				for (int i = from; i < to; i++) {
+					times[i] = (int) (edges[i] >>> 32);
+					targets[i] = (int) edges[i];
+					reduced[i] = times[i] + penalties[id] + penalties[targets[i]];
+				}
+			}
+		}
+
+		synchronized void found(final int[] candidate, final int candidateTime) {
+			if (candidateTime < time) {
+				path = candidate.clone();
+				time = candidateTime;
+			}
+		}
+
+		/**
+		 * Returns a lower bound of the time needed to visit the flowers not visited yet,
+		 * coming from the last visited flower. The rest of the path is a spanning tree of
+		 * these flowers plus a connection to the last visited one; with the penalties added,
+		 * it weighs at least the minimum spanning tree of the flowers and the cheapest such
+		 * connection. The penalties are taken off again, counting twice for each flower
+		 * except the last visited one and the one the path ends at.
+		 * @return the bound, or {@link Double#POSITIVE_INFINITY} if the flowers cannot be visited
+		 */
+		double bound(final int last, final boolean[] visited, final int remaining, final double[] keys, final boolean[] tree) {
+			int first = -1;
+			for (int id = 0; id < size; id++) {
+				keys[id] = Double.POSITIVE_INFINITY;
+				tree[id] = visited[id];
+				if (first < 0 && !visited[id]) {
+					first = id;
+				}
+			}
+			keys[first] = 0;
+			double result = 0;
+			double sum = 0;
+			double lowest = Double.POSITIVE_INFINITY;
+			for (int count = 0; count < remaining; count++) {
+				int next = -1;
+				double key = Double.POSITIVE_INFINITY;
+				for (int id = 0; id < size; id++) {
+					if (!tree[id] && keys[id] < key) {
+						key = keys[id];
+						next = id;
+					}
+				}
+				if (next < 0) {
+					return Double.POSITIVE_INFINITY;
+				}
+				tree[next] = true;
+				result += key;
+				sum += penalties[next];
+				lowest = Math.min(lowest, penalties[next]);
+				for (int i = offsets[next]; i < offsets[next + 1]; i++) {
+					final int target = targets[i];
+					if (!tree[target] && reduced[i] < keys[target]) {
+						keys[target] = reduced[i];
+					}
+				}
+			}
+			double connection = Double.POSITIVE_INFINITY;
+			for (int i = offsets[last]; i < offsets[last + 1]; i++) {
+				if (!visited[targets[i]]) {
+					connection = Math.min(connection, reduced[i]);
+				}
+			}
+			return result + connection - penalties[last] - 2 * sum + lowest;
+		}
+
+		/**
+		 * A branch of the search, i.e. all paths starting with a given prefix.
+		 * Branches near the root are forked; deeper ones are searched depth-first.
+		 */
+		protected class Branch extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int[] prefix;
+			private final int depth;
+			private final boolean[] visited;
+			private final int cost;
+			private double[] keys;
+			private boolean[] tree;
+			private int nodes;
+
+			Branch(final int[] prefix, final int depth, final boolean[] visited, final int cost) {
+				this.prefix = prefix;
+				this.depth = depth;
+				this.visited = visited;
+				this.cost = cost;
+			}
+
+			@Override
+			protected void compute() {
+				if (depth == 0) {
+					final Branch[] branches = new Branch[size];
+					for (int id = 0; id < size; id++) {
+						branches[id] = child(id, 0);
+					}
+					invokeAll(branches);
+				} else if (depth < SPLIT_DEPTH) {
+					final int last = prefix[depth - 1];
+					final Branch[] branches = new Branch[offsets[last + 1] - offsets[last]];
+					int count = 0;
+					for (int i = offsets[last]; i < offsets[last + 1]; i++) {
+						if (!visited[targets[i]]) {
+							branches[count++] = child(targets[i], times[i]);
+						}
+					}
+					invokeAll(Arrays.asList(branches).subList(0, count));
+				} else {
+					keys = new double[size];
+					tree = new boolean[size];
+					search(prefix, depth, cost);
+				}
+			}
+
+			private Branch child(final int id, final int time) {
+				final int[] childPrefix = prefix.clone();
+				final boolean[] childVisited = visited.clone();
+				childPrefix[depth] = id;
+				childVisited[id] = true;
+				return new Branch(childPrefix, depth + 1, childVisited, cost + time);
+			}
+
+			private void search(final int[] path, final int length, final int pathTime) {
+				if (stopped.get()) {
+					return;
+				}
+				if (++nodes == CHECK_INTERVAL) {
+					nodes = 0;
+					if (System.nanoTime() > deadline) {
+						stopped.set(true);
+						return;
+					}
+				}
+				if (length == size) {
+					// each path is also found reversed
+					if (path[0] < path[size - 1]) {
+						found(path, pathTime);
+					}
+					return;
+				}
+				if (pathTime >= time) {
+					return;
+				}
+				final int last = path[length - 1];
+				// the times are whole numbers, so is the time of the rest of the path
+				if (pathTime + Math.ceil(bound(last, visited, size - length, keys, tree) - EPSILON) >= time) {
+					return;
+				}
+				for (int i = offsets[last]; i < offsets[last + 1]; i++) {
+					final int next = targets[i];
+					if (!visited[next]) {
+						visited[next] = true;
+						path[length] = next;
+						search(path, length + 1, pathTime + times[i]);
+						visited[next] = false;
+					}
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * Fills in the fastest time of each busy bee input of an inputs file, or flags
+	 * the input as expecting an empty response if the flowers cannot be visited.
+	 * Inputs which are not solved within the time limit are left unchanged. The inputs
+	 * are solved in parallel.
+	 * @param args the arguments, either exactly one argument containing a whitespace-separated
+	 * string, or the separate arguments: the source and the target file, and optionally the
+	 * time limit per input in seconds (default: none). A target named {@code .json} is written
+	 * as JSON, otherwise in the binary format.
+	 * <p>This is normally run through Maven using {@code mvn -Pbusybee ...}</p>
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final String[] params = args.length == 1 ? args[0].split(" ") : args;
+		if (params.length < 2 || params[0].startsWith("$") || params[1].startsWith("$")) {
+			System.err.println("*** please specify the source and the target file, e.g. -Din=inputs.json -Dout=solved.json");
+			return;
+		}
+		final long seconds = params.length > 2 && !params[2].startsWith("$") ? Long.parseLong(params[2]) : 0;
+		final Inputs inputs = InputsLoader.load(Paths.get(params[0]));
+		final BusyBeeSolver solver = new BusyBeeSolver(ForkJoinPool.commonPool(), TimeUnit.SECONDS.toMillis(seconds));
+		final List<BusyBeeData> graphs = inputs.beeGraphs == null ? new ArrayList<>() : inputs.beeGraphs;
+		// the inputs are solved in parallel, the dynamic programming itself is sequential
+		IntStream.range(0, graphs.size()).parallel().forEach(i -> {
+			final BusyBeeData data = graphs.get(i);
+			final long start = System.nanoTime();
+			final Solution solution = solver.solve(BusyBeeGraph.of(data));
+			final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			if (!solution.optimal) {
+				System.out.printf("#%d: %d flowers, not solved within %d s, left unchanged%n", Integer.valueOf(i), Integer.valueOf(BusyBeeGraph.of(data).size()), Long.valueOf(seconds));
+			} else if (solution.path == null) {
+				data.empty = true;
+				System.out.printf("#%d: %d flowers, no path (%d ms)%n", Integer.valueOf(i), Integer.valueOf(BusyBeeGraph.of(data).size()), Long.valueOf(millis));
+			} else {
+				data.maxTime = solution.time;
+				data.empty = false;
+				System.out.printf("#%d: %d flowers, fastest path %d (%d ms)%n", Integer.valueOf(i), Integer.valueOf(solution.path.length), Integer.valueOf(solution.time), Long.valueOf(millis));
+			}
+		});
+		BinaryInputs.write(inputs, Paths.get(params[1]));
+	}
+
+}
@@ -0,0 +1,295 @@
+package de.engehausen.cc2.reference;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import de.engehausen.cc2.api.CharacterOperation;
+import de.engehausen.cc2.data.BinaryInputs;
+import de.engehausen.cc2.data.EditDistanceData;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.InputsLoader;
+
+/**
+ * Computes minimal edit distances (Levenshtein distances) and edit scripts.
+ * <ul>
+ * <li>{@link #distance(String, String)} uses Myers' bit-parallel algorithm, processing
+ * 64 rows of the dynamic programming matrix at once, in blocks of 64 bit words for
+ * strings longer than 64 characters</li>
+ * <li>{@link #within(String, String, int)} checks whether the distance is at most
+ * {@code k} by only computing the diagonal band of width {@code 2k + 1} (Ukkonen)</li>
+ * <li>{@link #script(String, String)} recovers an optimal list of operations in linear
+ * space by Hirschberg's divide and conquer method</li>
+ * </ul>
+ */
+public class EditDistance {
+
+	private static final int WORD = 64;
+	private static final long HIGH_BIT = 1L << (WORD - 1);
+
+	private EditDistance() {
+		// static methods only
+	}
+
+	/**
+	 * Computes the minimal number of character operations turning one string into another.
+	 * @param from the input string, must not be {@code null}
+	 * @param to the target string, must not be {@code null}
+	 * @return the edit distance
+	 */
+	public static int distance(final String from, final String to) {
+		// the shorter string makes for fewer blocks
+		final String pattern = from.length() <= to.length() ? from : to;
+		final String text = pattern == from ? to : from;
+		final int m = pattern.length();
+		if (m == 0) {
+			return text.length();
+		}
+		final int blocks = (m + WORD - 1) / WORD;
+		final char[] alphabet = alphabet(pattern);
+		// bit masks of the positions of each character of the alphabet in the pattern
+		final long[] peq = new long[alphabet.length * blocks];
+		for (int i = 0; i < m; i++) {
+			peq[Arrays.binarySearch(alphabet, pattern.charAt(i)) * blocks + i / WORD] |= 1L << (i % WORD);
+		}
+		final long[] pv = new long[blocks];
+		final long[] mv = new long[blocks];
+		Arrays.fill(pv, -1L);
+		final long last = 1L << ((m - 1) % WORD);
+		int score = m;
+		for (int j = 0; j < text.length(); j++) {
+			final int index = Arrays.binarySearch(alphabet, text.charAt(j));
+			// the first row of the matrix increases by one per column
+			int carry = 1;
+			for (int b = 0; b < blocks; b++) {
+				final long eq = index < 0 ? 0L : peq[index * blocks + b];
+				final long negative = carry < 0 ? 1L : 0L;
+				final long xv = eq | mv[b];
+				final long eqIn = eq | negative;
+				final long xh = (((eqIn & pv[b]) + pv[b]) ^ pv[b]) | eqIn;
+				long ph = mv[b] | ~(xh | pv[b]);
+				long mh = pv[b] & xh;
+				final long out = b == blocks - 1 ? last : HIGH_BIT;
+				final int next = ((ph & out) != 0 ? 1 : 0) - ((mh & out) != 0 ? 1 : 0);
+				ph = (ph << 1) | (carry > 0 ? 1L : 0L);
+				mh = (mh << 1) | negative;
+				pv[b] = mh | ~(xv | ph);
+				mv[b] = ph & xv;
+				carry = next;
+			}
+			score += carry;
+		}
+		return score;
+	}
+
+	/**
+	 * Checks whether the edit distance of two strings is at most {@code k}. Only the
+	 * cells of the dynamic programming matrix at most {@code k} off the diagonal are
+	 * computed, so the check takes {@code O(k * n)} time.
+	 * @param from the input string, must not be {@code null}
+	 * @param to the target string, must not be {@code null}
+	 * @param k the maximal distance
+	 * @return {@code true} if the distance is at most {@code k}
+	 */
+	public static boolean within(final String from, final String to, final int k) {
+		final int n = from.length();
+		final int m = to.length();
+		if (k < 0 || Math.abs(n - m) > k) {
+			return false;
+		}
+		final int width = 2 * k + 1;
+		final int infinite = k + 1;
+		// cell (i, j) is at index j - i + k of row i
+		int[] previous = new int[width];
+		int[] current = new int[width];
+		Arrays.fill(previous, infinite);
+		for (int j = 0; j <= Math.min(m, k); j++) {
+			previous[j + k] = j;
+		}
+		for (int i = 1; i <= n; i++) {
+			Arrays.fill(current, infinite);
+			int best = infinite;
+			for (int j = Math.max(0, i - k); j <= Math.min(m, i + k); j++) {
+				final int d = j - i + k;
+				int value;
+				if (j == 0) {
+					value = i;
+				} else {
+					// diagonal, from above (d + 1 in the previous row) and from the left (d - 1)
+					value = previous[d] + (from.charAt(i - 1) == to.charAt(j - 1) ? 0 : 1);
+					if (d + 1 < width) {
+						value = Math.min(value, previous[d + 1] + 1);
+					}
+					if (d > 0) {
+						value = Math.min(value, current[d - 1] + 1);
+					}
+				}
+				current[d] = Math.min(value, infinite);
+				best = Math.min(best, current[d]);
+			}
+			if (best > k) {
+				return false;
+			}
+			final int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[m - n + k] <= k;
+	}
+
+	/**
+	 * Computes an optimal list of operations turning one string into another. The
+	 * positions of the operations refer to the string with all previous operations applied.
+	 * @param from the input string, must not be {@code null}
+	 * @param to the target string, must not be {@code null}
+	 * @return the operations, as many as the edit distance - never {@code null}
+	 */
+	public static List<CharacterOperation> script(final String from, final String to) {
+		final List<CharacterOperation> result = new ArrayList<>();
+		hirschberg(from, 0, from.length(), to, 0, to.length(), result);
+		return result;
+	}
+
+	/**
+	 * Appends the operations turning {@code from[a, b)} into {@code to[c, d)};
+	 * all of {@code to[0, c)} is produced already.
+	 */
+	private static void hirschberg(final String from, final int a, final int b, final String to, final int c, final int d, final List<CharacterOperation> result) {
+		if (b - a == 0) {
+			for (int j = c; j < d; j++) {
+				result.add(CharacterOperation.insert(j, to.charAt(j)));
+			}
+		} else if (d - c == 0) {
+			for (int i = a; i < b; i++) {
+				result.add(CharacterOperation.remove(c));
+			}
+		} else if (b - a == 1) {
+			final int match = to.substring(c, d).indexOf(from.charAt(a));
+			if (match < 0) {
+				result.add(CharacterOperation.replace(c, to.charAt(c)));
+				for (int j = c + 1; j < d; j++) {
+					result.add(CharacterOperation.insert(j, to.charAt(j)));
+				}
+			} else {
+				for (int j = c; j < d; j++) {
+					if (j != c + match) {
+						result.add(CharacterOperation.insert(j, to.charAt(j)));
+					}
+				}
+			}
+		} else {
+			final int middle = (a + b) / 2;
+			final int[] forward = forward(from, a, middle, to, c, d);
+			final int[] backward = backward(from, middle, b, to, c, d);
+			int split = 0;
+			for (int x = 1; x <= d - c; x++) {
+				if (forward[x] + backward[x] < forward[split] + backward[split]) {
+					split = x;
+				}
+			}
+			hirschberg(from, a, middle, to, c, c + split, result);
+			hirschberg(from, middle, b, to, c + split, d, result);
+		}
+	}
+
+	/**
+	 * Returns the distances of {@code from[a, b)} to each prefix {@code to[c, c + x)}.
+	 */
+	private static int[] forward(final String from, final int a, final int b, final String to, final int c, final int d) {
+		final int[] row = new int[d - c + 1];
+		for (int x = 0; x < row.length; x++) {
+			row[x] = x;
+		}
+		for (int i = a; i < b; i++) {
+			int diagonal = row[0];
+			row[0] = i - a + 1;
+			for (int x = 1; x < row.length; x++) {
+				final int above = row[x];
+				row[x] = Math.min(Math.min(above, row[x - 1]) + 1, diagonal + (from.charAt(i) == to.charAt(c + x - 1) ? 0 : 1));
+				diagonal = above;
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Returns the distances of {@code from[a, b)} to each suffix {@code to[c + x, d)}.
+	 */
+	private static int[] backward(final String from, final int a, final int b, final String to, final int c, final int d) {
+		final int[] row = new int[d - c + 1];
+		for (int x = 0; x < row.length; x++) {
+			row[x] = d - c - x;
+		}
+		for (int i = b - 1; i >= a; i--) {
+			int diagonal = row[row.length - 1];
+			row[row.length - 1] = b - i;
+			for (int x = row.length - 2; x >= 0; x--) {
+				final int below = row[x];
+				row[x] = Math.min(Math.min(below, row[x + 1]) + 1, diagonal + (from.charAt(i) == to.charAt(c + x) ? 0 : 1));
+				diagonal = below;
+			}
+		}
+		return row;
+	}
+
+	private static char[] alphabet(final String pattern) {
+		final char[] chars = pattern.toCharArray();
+		Arrays.sort(chars);
+		int count = 0;
+		for (int i = 0; i < chars.length; i++) {
+			if (i == 0 || chars[i] != chars[i - 1]) {
+				chars[count++] = chars[i];
+			}
+		}
+		return Arrays.copyOf(chars, count);
+	}
+
+	/**
+	 * Computes the edit distance of each edit distance input of an inputs file, in parallel.
+	 * Given a target file, the distances are filled in and the inputs are written to it;
+	 * otherwise the given distances are only validated.
+	 * @param args the arguments, either exactly one argument containing a whitespace-separated
+	 * string, or the separate arguments: the source file and optionally the target file. A target
+	 * named {@code .json} is written as JSON, otherwise in the binary format.
+	 * <p>This is normally run through Maven using {@code mvn -Peditdistance ...}</p>
+	 * @throws Throwable in case of error
+	 */
+	public static void main(final String... args) throws Throwable {
+		final String[] params = args.length == 1 ? args[0].split(" ") : args;
+		if (params.length < 1 || params[0].startsWith("$")) {
+			System.err.println("*** please specify the source and optionally the target file, e.g. -Din=inputs.json [-Dout=fixed.json]");
+			return;
+		}
+		final boolean fill = params.length > 1 && !params[1].startsWith("$");
+		final Inputs inputs = InputsLoader.load(Paths.get(params[0]));
+		final List<EditDistanceData> pairs = inputs.editDistances == null ? new ArrayList<>() : inputs.editDistances;
+		final AtomicInteger wrong = new AtomicInteger();
+		IntStream.range(0, pairs.size()).parallel().forEach(i -> {
+			final EditDistanceData data = pairs.get(i);
+			final String message;
+			if (fill) {
+				final int distance = distance(data.from, data.to);
+				message = distance == data.distance ? null : String.format("#%d: distance %d, was %d", Integer.valueOf(i), Integer.valueOf(distance), Integer.valueOf(data.distance));
+				data.distance = distance;
+			} else if (!within(data.from, data.to, data.distance)) {
+				message = String.format("#%d: distance %d is too small, minimal is %d", Integer.valueOf(i), Integer.valueOf(data.distance), Integer.valueOf(distance(data.from, data.to)));
+			} else if (within(data.from, data.to, data.distance - 1)) {
+				message = String.format("#%d: distance %d is not minimal, minimal is %d", Integer.valueOf(i), Integer.valueOf(data.distance), Integer.valueOf(distance(data.from, data.to)));
+			} else {
+				message = null;
+			}
+			if (message != null) {
+				wrong.incrementAndGet();
+				System.out.println(message);
+			}
+		});
+		System.out.printf("%d of %d distances %s%n", Integer.valueOf(wrong.get()), Integer.valueOf(pairs.size()), fill ? "changed" : "wrong");
+		if (fill) {
+			BinaryInputs.write(inputs, Paths.get(params[1]));
+		}
+	}
+
+}
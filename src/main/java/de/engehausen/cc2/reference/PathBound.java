@@ -0,0 +1,232 @@
+package de.engehausen.cc2.reference;
+
+import java.util.Arrays;
+
+import de.engehausen.cc2.api.FlowerGraph;
+
+/**
+ * Computes a lower bound of the time of the fastest path through a flower field,
+ * i.e. of its shortest Hamiltonian path. An extra flower connected to all flowers
+ * at no cost turns each path into a round trip, which is bounded by its 1-trees
+ * (a spanning tree of the original flowers plus the two cheapest connections of
+ * the extra flower). Penalties on the flowers are adjusted by subgradient
+ * optimization to push the 1-tree towards a path (Held-Karp bound); without
+ * penalties, the bound is the weight of the minimum spanning tree.
+ */
+public class PathBound {
+
+	/** the bound of flower fields which cannot be traversed at all */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private static final int MAX_ITERATIONS = 200;
+	private static final int PATIENCE = 10;
+	private static final double MIN_STEP = 1e-4;
+	private static final double EPSILON = 1e-6;
+
+	private final int size;
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] times;
+	private final double[] keys;
+	private final int[] parents;
+	private final int[] heap;
+	private final int[] positions;
+	private final int[] degrees;
+	private final double[] best;
+
+	/**
+	 * Creates the bound computation for the given flower field.
+	 * @param graph the flower field, must not be {@code null}
+	 */
+	public PathBound(final FlowerGraph graph) {
+		this.size = graph.size();
+		this.offsets = graph.offsets();
+		this.targets = graph.targets();
+		this.times = graph.times();
+		this.keys = new double[size];
+		this.parents = new int[size];
+		this.heap = new int[size];
+		this.positions = new int[size];
+		this.degrees = new int[size];
+		this.best = new double[size];
+	}
+
+	/**
+	 * Computes a lower bound of the time of the fastest path through the given field.
+	 * @param graph the flower field, must not be {@code null}
+	 * @param upper the time of a known path, used to size the optimization steps; {@code 0} if unknown
+	 * @return the lower bound, or {@link #UNREACHABLE} if no path exists
+	 */
+	public static int of(final FlowerGraph graph, final int upper) {
+		return new PathBound(graph).compute(upper);
+	}
+
+	/**
+	 * Computes the lower bound.
+	 * @param upper the time of a known path, {@code 0} if unknown
+	 * @return the lower bound, or {@link #UNREACHABLE} if no path exists
+	 */
+	public int compute(final int upper) {
+		if (size <= 1) {
+			return 0;
+		}
+		final double[] penalties = new double[size];
+		Arrays.fill(best, 0);
+		double result = oneTree(penalties);
+		if (Double.isNaN(result)) {
+			return UNREACHABLE;
+		}
+		double lambda = 2;
+		int stale = 0;
+		for (int iteration = 0; iteration < MAX_ITERATIONS && lambda > MIN_STEP; iteration++) {
+			final double bound = iteration == 0 ? result : oneTree(penalties);
+			if (bound > result + EPSILON) {
+				result = bound;
+				System.arraycopy(penalties, 0, best, 0, size);
+				stale = 0;
+			} else if (++stale == PATIENCE) {
+				lambda /= 2;
+				stale = 0;
+			}
+			long norm = 0;
+			for (int id = 0; id < size; id++) {
+				norm += (long) (degrees[id] - 2) * (degrees[id] - 2);
+			}
+			if (norm == 0) {
+				// the 1-tree is a path, hence the fastest one
+				break;
+			}
+			final double target = upper > result ? upper : result * 1.05 + 1;
+			final double step = lambda * (target - bound) / norm;
+			for (int id = 0; id < size; id++) {
+				penalties[id] += step * (degrees[id] - 2);
+			}
+		}
+		return (int) Math.ceil(result - EPSILON);
+	}
+
+	/**
+	 * Returns the penalties of the flowers which yielded the bound of the last
+	 * {@link #compute(int) computation}. With these penalties added to the travel
+	 * times, the 1-trees of parts of the field bound the rest of a path tightly.
+	 * @return the penalties indexed by flower id, all zero if none improved the bound
+	 */
+	public double[] penalties() {
+		return best.clone();
+	}
+
+	/**
+	 * Computes the minimum 1-tree for the given penalties and records the degrees
+	 * of the flowers in it.
+	 * @param penalties the penalties of the flowers
+	 * @return the Lagrangian bound, or {@code NaN} if the flowers are not connected
+	 */
+	protected double oneTree(final double[] penalties) {
+		final double tree = spanningTree(penalties);
+		if (Double.isNaN(tree)) {
+			return Double.NaN;
+		}
+		// the extra flower connects to the two flowers of the lowest penalties
+		int first = -1;
+		int second = -1;
+		for (int id = 0; id < size; id++) {
+			if (first < 0 || penalties[id] < penalties[first]) {
+				second = first;
+				first = id;
+			} else if (second < 0 || penalties[id] < penalties[second]) {
+				second = id;
+			}
+		}
+		degrees[first]++;
+		degrees[second]++;
+		double sum = 0;
+		for (int id = 0; id < size; id++) {
+			sum += penalties[id];
+		}
+		return tree + penalties[first] + penalties[second] - 2 * sum;
+	}
+
+	/**
+	 * Computes the minimum spanning tree of the flowers, with the penalties of
+	 * both flowers added to each connection (Prim's algorithm).
+	 * @param penalties the penalties of the flowers
+	 * @return the weight of the tree, or {@code NaN} if the flowers are not connected
+	 */
+	protected double spanningTree(final double[] penalties) {
+		Arrays.fill(keys, Double.POSITIVE_INFINITY);
+		Arrays.fill(parents, -1);
+		Arrays.fill(degrees, 0);
+		for (int id = 0; id < size; id++) {
+			heap[id] = id;
+			positions[id] = id;
+		}
+		keys[0] = 0;
+		int count = size;
+		double result = 0;
+		while (count > 0) {
+			final int next = heap[0];
+			if (keys[next] == Double.POSITIVE_INFINITY) {
+				return Double.NaN;
+			}
+			count--;
+			move(count, 0);
+			down(0, count);
+			positions[next] = -1;
+			result += keys[next];
+			if (parents[next] >= 0) {
+				degrees[next]++;
+				degrees[parents[next]]++;
+			}
+			for (int i = offsets[next]; i < offsets[next + 1]; i++) {
+				final int target = targets[i];
+				if (positions[target] >= 0) {
+					final double key = times[i] + penalties[next] + penalties[target];
+					if (key < keys[target]) {
+						keys[target] = key;
+						parents[target] = next;
+						up(positions[target]);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private void move(final int from, final int to) {
+		heap[to] = heap[from];
+		positions[heap[to]] = to;
+	}
+
+	private void up(final int index) {
+		final int id = heap[index];
+		int position = index;
+		while (position > 0 && keys[heap[(position - 1) / 2]] > keys[id]) {
+			move((position - 1) / 2, position);
+			position = (position - 1) / 2;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+	private void down(final int index, final int count) {
+		if (count == 0) {
+			return;
+		}
+		final int id = heap[index];
+		int position = index;
+		while (2 * position + 1 < count) {
+			int child = 2 * position + 1;
+			if (child + 1 < count && keys[heap[child + 1]] < keys[heap[child]]) {
+				child++;
+			}
+			if (keys[heap[child]] >= keys[id]) {
+				break;
+			}
+			move(child, position);
+			position = child;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Reference solutions of the challenges, used to compute the expected
+ * values of generated or hand-written inputs rather than to compete.
+ */
+package de.engehausen.cc2.reference;
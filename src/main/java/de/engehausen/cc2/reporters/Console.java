@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import com.google.common.base.Charsets;
 
@@ -14,7 +17,10 @@ import de.engehausen.cc2.data.Results;
 import de.engehausen.cc2.data.Results.Record;
 
 /**
- * Reports challenge results to {@code System.out}.
+ * Reports challenge results to {@code System.out}. Records are printed as they
+ * complete; at the end of such a run only a summary per challenge is printed,
+ * which is collected from the records as they arrive, so the records need not be kept.
+ * If no record was reported incrementally, all results of the inputs are printed at the end.
  */
 public class Console implements Reporter {
 
@@ -31,39 +37,109 @@ public class Console implements Reporter {
 	private static final String RESPONSE = "response: ";
 	private static final String TIME = "time    : ";
 	private static final String MILLIS = "ms";
+	private static final String STATISTICS = "stats   : ";
+	private static final String RESOURCES = "usage   : ";
+	private static final String QUALITY = "quality : ";
+	private static final String ANYTIME = "anytime : ";
 	private static final String FAIL = "fail: ";
 	private static final String PASS = "pass";
-	
+	private static final String SLASH = " / ";
+	private static final String SUMMARY = "Summary";
+	private static final Map<String, String> TITLES;
+
+	static {
+		TITLES = new LinkedHashMap<>();
+		TITLES.put(Inputs.EDIT_DISTANCES, "Java: Minimal Edit Distance");
+		TITLES.put(Inputs.BEE_GRAPHS, "Java: Busy Bee");
+		TITLES.put(Inputs.PANCAKES, "JavaScript: Pancake Flipper");
+		TITLES.put(Inputs.HAPPY_SEVEN, "JavaScript: Happy Seven");
+		TITLES.put(Inputs.NOTATION_EXPRESSIONS, "Lisp: Reverse Polish Notation");
+		TITLES.put(Inputs.HUFFMAN_STRINGS, "Lisp: Huffman Coding");
+		TITLES.put(Inputs.XML_EASY, "XSLT: Simple element transformation");
+		TITLES.put(Inputs.XML_HARD, "XSLT: Multi-rule based document transformation");
+	}
+
 	private final int outLimit;
+	// challenge name to contribution name to the totals of its records
+	private final Map<String, Map<String, Totals>> totals;
+	private volatile boolean streamed;
 
 	/**
 	 * Creates the reporter. The system property {@link #RESPONSELIMIT} defines how much of the response is output.
 	 */
 	public Console() {
 		outLimit = Integer.parseInt(System.getProperty(RESPONSELIMIT, "63"));
+		totals = new LinkedHashMap<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void generate(final Inputs results, final OutputStream output) {
+		final OutputStreamWriter writer = new OutputStreamWriter(output, Charsets.UTF_8);
+		try {
+			if (streamed) {
+				writer
+					.append(SUMMARY)
+					.append(NEWLINE)
+					.append(SEPARATOR_MAIN);
+				// the inputs are not touched, lazily loaded lists stay released
+				for (final String challenge : TITLES.keySet()) {
+					final Map<String, Totals> challengeTotals = totals.get(challenge);
+					if (challengeTotals != null) {
+						summarize(TITLES.get(challenge), challengeTotals, writer);
+					}
+				}
+			} else {
+				for (final Map.Entry<String, List<? extends Results>> entry : results.challenges().entrySet()) {
+					report(TITLES.get(entry.getKey()), entry.getValue(), writer);
+				}
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void generate(final Inputs results, final OutputStream output) {
+	public synchronized void onRecord(final String challenge, final Results input, final String contribution, final Record record, final OutputStream output) {
+		streamed = true;
+		final Totals current = totals
+			.computeIfAbsent(challenge, key -> new TreeMap<>())
+			.computeIfAbsent(contribution, key -> new Totals());
+		current.passed += record.ok ? 1 : 0;
+		current.count++;
+		current.millis += record.millis;
 		final OutputStreamWriter writer = new OutputStreamWriter(output, Charsets.UTF_8);
 		try {
-			report("Java: Minimal Edit Distance", results.editDistances, writer);
-			report("Java: Busy Bee", results.beeGraphs, writer);
-			report("JavaScript: Pancake Flipper", results.pancakes, writer);
-			report("JavaScript: Happy Seven", results.happySeven, writer);
-			report("Lisp: Reverse Polish Notation", results.notationExpressions, writer);
-			report("Lisp: Huffman Coding", results.huffmanStrings, writer);
-			report("XSLT: Simple element transformation", results.xmlEasy, writer);
-			report("XSLT: Multi-rule based document transformation", results.xmlHard, writer);
+			writer
+				.append(TITLES.getOrDefault(challenge, challenge))
+				.append(SLASH)
+				.append(input.label != null ? input.label : ANONYMOUS_TEST)
+				.append(SLASH)
+				.append(contribution)
+				.append(NEWLINE);
+			writeRecord(writer, record);
 			writer.flush();
 		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
+	/**
+	 * The records are printed as they arrive; the summary at the end of the run
+	 * is collected from them.
+	 * @return {@code false}
+	 */
+	@Override
+	public boolean usesRecords() {
+		return false;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -113,6 +189,23 @@ public class Console implements Reporter {
 		}
 	}
 
+	protected void summarize(final String title, final Map<String, Totals> contributions, final OutputStreamWriter writer) throws IOException {
+		writer
+			.append(title)
+			.append(NEWLINE)
+			.append(SEPARATOR);
+		for (final Map.Entry<String, Totals> entry : contributions.entrySet()) {
+			writer
+				.append(INDENT)
+				.append(entry.getKey())
+				.append(String.format(": %d/%d passed, %.3fms",
+					Integer.valueOf(entry.getValue().passed), Integer.valueOf(entry.getValue().count),
+					Double.valueOf(entry.getValue().millis)))
+				.append(NEWLINE);
+		}
+		writer.append(NEWLINE);
+	}
+
 	protected void writeRecord(final OutputStreamWriter writer, final Record record) throws IOException {
 		writer
 			.append(INDENT)
@@ -133,16 +226,75 @@ public class Console implements Reporter {
 				.append(MILLIS)
 				.append(NEWLINE);
 		}
+		if (record.cost != null) {
+			writer
+				.append(INDENT)
+				.append(QUALITY)
+				.append(record.gap != null
+					? String.format("cost %d, %.2f%% above lower bound", record.cost, record.gap)
+					: String.format("cost %d", record.cost))
+				.append(NEWLINE);
+		}
+		if (record.firstMillis != null) {
+			writer
+				.append(INDENT)
+				.append(ANYTIME)
+				.append(String.format("first valid after %.3fms, best after %.3fms, %d improvement(s)",
+					record.firstMillis, record.bestMillis,
+					Integer.valueOf(record.improvements == null ? 0 : record.improvements.size())))
+				.append(NEWLINE);
+		}
+		if (record.cpuMillis != null || record.allocatedBytes != null) {
+			writer
+				.append(INDENT)
+				.append(RESOURCES)
+				.append(String.format("cpu %sms, allocated %s bytes, gc %s (%sms), %s sample(s) with gc",
+					record.cpuMillis != null ? String.format("%.3f", record.cpuMillis) : "?",
+					record.allocatedBytes != null ? record.allocatedBytes : "?",
+					record.gcCount, record.gcMillis, record.gcSamples))
+				.append(NEWLINE);
+		}
+		if (record.statistics != null) {
+			writer
+				.append(INDENT)
+				.append(STATISTICS)
+				.append(String.format("%.3f \u00b1 %.3fms, min %.3fms, p50 %.3fms, p90 %.3fms, p99 %.3fms, max %.3fms, n=%d",
+					Double.valueOf(record.statistics.mean), Double.valueOf(record.statistics.error),
+					Double.valueOf(record.statistics.min), Double.valueOf(record.statistics.p50),
+					Double.valueOf(record.statistics.p90), Double.valueOf(record.statistics.p99),
+					Double.valueOf(record.statistics.max), Integer.valueOf(record.statistics.samples)))
+				.append(NEWLINE);
+		}
 	}
 
 	protected static String shorten(final String in, final int limit) {
 		if (in != null) {
-			if (in.contains(NEWLINE)) {
-				return shorten(in.replaceAll("[\n\r]", ""), limit);
+			// single pass over the start of the response, dropping line breaks
+			final StringBuilder result = new StringBuilder(Math.min(in.length(), limit) + DOTS.length());
+			for (int i = 0, max = in.length(); i < max; i++) {
+				final char c = in.charAt(i);
+				if (c != '\n' && c != '\r') {
+					if (result.length() == limit) {
+						return result.append(DOTS).toString();
+					}
+					result.append(c);
+				}
 			}
-			return in.length() < limit ? in : in.substring(0, limit) + DOTS;
+			return result.toString();
 		}
 		return "";
 	}
 
+	/**
+	 * The totals of the records of a contribution for a challenge.
+	 */
+	protected static class Totals {
+		/** the number of passed inputs */
+		public int passed;
+		/** the number of inputs */
+		public int count;
+		/** the sum of the execution times in milliseconds */
+		public double millis;
+	}
+
 }
@@ -0,0 +1,121 @@
+package de.engehausen.cc2.reporters;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.engehausen.cc2.api.Reporter;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Writes each record to a file named {@code report.jsonl} as soon as it is final,
+ * one JSON object per line. Each line holds the challenge, the label of the
+ * input, the contribution and the record. Every line is flushed, so the
+ * records written so far survive an aborted run.
+ */
+public class JsonLines implements Reporter {
+
+	private static final String NAME = "jsonl";
+	private static final String LINE_SEPARATOR = "\n";
+	private static final String NO_SEPARATOR = "";
+
+	private final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+
+	private OutputStream output;
+	private JsonGenerator generator;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void onRecord(final String challenge, final Results input, final String contribution, final Record record, final OutputStream output) {
+		try {
+			final JsonGenerator json = generator(output);
+			json.writeStartObject();
+			json.writeStringField("challenge", challenge);
+			if (input.label != null) {
+				json.writeStringField("label", input.label);
+			}
+			json.writeStringField("contribution", contribution);
+			json.writeObjectField("record", record);
+			json.writeEndObject();
+			json.writeRaw(LINE_SEPARATOR);
+			json.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Finishes the file; the records have been written already.
+	 * @param results the results, not used
+	 * @param output the stream to finish
+	 */
+	@Override
+	public synchronized void generate(final Inputs results, final OutputStream output) {
+		try {
+			if (generator != null && this.output == output) {
+				generator.close();
+				generator = null;
+				this.output = null;
+			} else {
+				output.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The records are written as they arrive and not needed at the end of the run.
+	 * @return {@code false}
+	 */
+	@Override
+	public boolean usesRecords() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public OutputStream createOutputStream(final String folder) {
+		try {
+			return new FileOutputStream(folder + File.separatorChar + "report.jsonl");
+		} catch (FileNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String name() {
+		return NAME;
+	}
+
+	private JsonGenerator generator(final OutputStream output) throws IOException {
+		if (generator == null || this.output != output) {
+			if (generator != null) {
+				generator.flush();
+			}
+			generator = mapper
+				.getFactory()
+				.createGenerator(output)
+				.setPrettyPrinter(new MinimalPrettyPrinter(NO_SEPARATOR));
+			this.output = output;
+		}
+		return generator;
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.engehausen.cc2.reporters;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.google.common.base.Charsets;
+
+import de.engehausen.cc2.XsltTransformer;
+import de.engehausen.cc2.api.Reporter;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.data.XmlData;
+
+/**
+ * Reports the throughput of the XSLT contributions to {@code System.out}: for each
+ * contribution and input document the size, the time and the megabytes transformed
+ * per second. Meant for inputs of growing document sizes, e.g. generated by the
+ * {@link de.engehausen.cc2.XmlCorpus}, to see how a stylesheet scales.
+ */
+public class Throughput implements Reporter {
+
+	private static final String NAME = "throughput";
+	private static final String NEWLINE = System.lineSeparator();
+	private static final double MEGABYTE = 1 << 20;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void generate(final Inputs results, final OutputStream output) {
+		final OutputStreamWriter writer = new OutputStreamWriter(output, Charsets.UTF_8);
+		try {
+			report("XSLT: Simple element transformation", results.xmlEasy, writer);
+			report("XSLT: Multi-rule based document transformation", results.xmlHard, writer);
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public OutputStream createOutputStream(final String folder) {
+		return System.out;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String name() {
+		return NAME;
+	}
+
+	protected void report(final String title, final List<XmlData> inputs, final OutputStreamWriter writer) throws IOException {
+		if (inputs == null || inputs.isEmpty()) {
+			return;
+		}
+		final TreeSet<String> contributions = new TreeSet<>();
+		for (final XmlData data : inputs) {
+			if (data.results != null) {
+				contributions.addAll(data.results.keySet());
+			}
+		}
+		writer
+			.append(title)
+			.append(NEWLINE);
+		for (final String contribution : contributions) {
+			writer
+				.append("  ")
+				.append(contribution)
+				.append(NEWLINE);
+			for (final XmlData data : inputs) {
+				final Record record = data.results == null ? null : data.results.get(contribution);
+				if (record != null) {
+					final long size = size(data);
+					writer.append(String.format("    %-40s %10.2f MB %12.3f ms %10s %s%n",
+						data.label != null ? data.label : data.xmlFile != null ? data.xmlFile : data.xmlIn,
+						Double.valueOf(size / MEGABYTE),
+						Double.valueOf(record.millis),
+						record.millis > 0 && size >= 0 ? String.format("%.2f MB/s", Double.valueOf(size / MEGABYTE / (record.millis / 1000))) : "-",
+						record.ok ? "pass" : "fail"));
+				}
+			}
+		}
+		writer.append(NEWLINE);
+	}
+
+	/**
+	 * Returns the size of the input document.
+	 * @param data the input data
+	 * @return the size in bytes, or {@code -1} if unknown
+	 */
+	protected long size(final XmlData data) {
+		try {
+			final URL url = XsltTransformer.locate(data.xmlIn, data.xmlFile);
+			if (url == null) {
+				return -1;
+			}
+			if ("file".equals(url.getProtocol())) {
+				final Path path = Paths.get(url.toURI());
+				return Files.size(path);
+			}
+			final URLConnection connection = url.openConnection();
+			return connection.getContentLengthLong();
+		} catch (IOException | URISyntaxException e) {
+			return -1;
+		}
+	}
+
+}
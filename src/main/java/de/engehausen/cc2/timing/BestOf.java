@@ -0,0 +1,54 @@
+package de.engehausen.cc2.timing;
+
+import java.util.concurrent.Callable;
+
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Measures a task by running it a number of times and recording the
+ * fastest execution time. The record of the fastest invocation is returned,
+ * so that its response and progress belong to the recorded time.
+ */
+public class BestOf implements Measurement {
+
+	private final int runs;
+
+	/**
+	 * Creates the measurement.
+	 * @param runs the number of runs, must be positive
+	 */
+	public BestOf(final int runs) {
+		this.runs = runs;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Record measure(final Callable<Record> task, final Sampler sampler) throws Exception {
+		Record result = null;
+		long min = Long.MAX_VALUE;
+		// a timed out task is interrupted, its remaining runs are skipped
+		for (int i = 0; i < runs && !Thread.currentThread().isInterrupted(); i++) {
+			sampler.begin();
+			final long then = System.nanoTime();
+			final Record record = task.call();
+			final long now = System.nanoTime() - then;
+			sampler.end();
+			if (now < min) {
+				min = now;
+				result = record;
+			}
+		}
+		if (result != null) {
+			result.millis = min / 1000000d;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "best of " + runs;
+	}
+
+}
@@ -0,0 +1,19 @@
+package de.engehausen.cc2.timing;
+
+/**
+ * Consumes values so that the just-in-time compiler cannot prove
+ * them unused and eliminate the code computing them.
+ */
+public final class Blackhole {
+
+	private volatile Object sink;
+
+	/**
+	 * Consumes the given value.
+	 * @param value the value to consume
+	 */
+	public void consume(final Object value) {
+		sink = value;
+	}
+
+}
@@ -0,0 +1,24 @@
+package de.engehausen.cc2.timing;
+
+import java.util.concurrent.Callable;
+
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Measures the execution time of a challenge solution.
+ */
+public interface Measurement {
+
+	/**
+	 * Repeatedly invokes the given task and fills the timing information
+	 * into the record returned by one of the invocations, by default the last one.
+	 * Once the current thread is interrupted, e.g. because the task timed out,
+	 * no further invocations are made.
+	 * @param task the task to measure, it processes one input and returns the record of the result, must not be {@code null}
+	 * @param sampler the sampler to call around each measured invocation, must not be {@code null}
+	 * @return the record of the invocation the timing is filled into
+	 * @throws Exception in case the task fails
+	 */
+	Record measure(Callable<Record> task, Sampler sampler) throws Exception;
+
+}
@@ -0,0 +1,118 @@
+package de.engehausen.cc2.timing;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Samples the resources used by measured invocations: the CPU time and the
+ * allocated bytes of the invoking thread as well as the garbage collections
+ * of the JVM. Samples during which a garbage collection happened are counted.
+ * A sampler is used by one thread at a time.
+ */
+public class ResourceSampler implements Sampler {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+	private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+	private static final boolean CPU_TIME;
+
+	static {
+		CPU_TIME = THREADS.isThreadCpuTimeSupported();
+		if (CPU_TIME && !THREADS.isThreadCpuTimeEnabled()) {
+			THREADS.setThreadCpuTimeEnabled(true);
+		}
+		if (THREADS instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()) {
+			ALLOCATIONS = (com.sun.management.ThreadMXBean) THREADS;
+			ALLOCATIONS.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			ALLOCATIONS = null;
+		}
+	}
+
+	private int samples;
+	private long cpuNanos;
+	private long allocatedBytes;
+	private long gcCount;
+	private long gcMillis;
+	private int gcSamples;
+
+	private long cpuStart;
+	private long allocatedStart;
+	private long gcCountStart;
+	private long gcMillisStart;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void begin() {
+		gcCountStart = collections();
+		gcMillisStart = collectionMillis();
+		allocatedStart = allocated();
+		cpuStart = cpu();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void end() {
+		cpuNanos += cpu() - cpuStart;
+		allocatedBytes += allocated() - allocatedStart;
+		final long collections = collections() - gcCountStart;
+		gcCount += collections;
+		gcMillis += collectionMillis() - gcMillisStart;
+		if (collections > 0) {
+			gcSamples++;
+		}
+		samples++;
+	}
+
+	/**
+	 * Stores the sampled resource usage in the given record. CPU time and
+	 * allocated bytes are averaged per invocation, garbage collections are totals.
+	 * @param record the record to fill, must not be {@code null}
+	 */
+	public void fill(final Record record) {
+		if (samples > 0) {
+			if (CPU_TIME) {
+				record.cpuMillis = Double.valueOf(cpuNanos / (samples * 1000000d));
+			}
+			if (ALLOCATIONS != null) {
+				record.allocatedBytes = Long.valueOf(allocatedBytes / samples);
+			}
+			record.gcCount = Long.valueOf(gcCount);
+			record.gcMillis = Long.valueOf(gcMillis);
+			record.gcSamples = Integer.valueOf(gcSamples);
+		}
+	}
+
+	private static long cpu() {
+		return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static long allocated() {
+		return ALLOCATIONS != null ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+
+	private static long collections() {
+		long result = 0;
+		for (final GarbageCollectorMXBean collector : COLLECTORS) {
+			result += Math.max(0, collector.getCollectionCount());
+		}
+		return result;
+	}
+
+	private static long collectionMillis() {
+		long result = 0;
+		for (final GarbageCollectorMXBean collector : COLLECTORS) {
+			result += Math.max(0, collector.getCollectionTime());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,31 @@
+package de.engehausen.cc2.timing;
+
+/**
+ * Takes samples around each measured invocation. The calls are made
+ * just outside of the timed region on the thread running the invocation.
+ */
+public interface Sampler {
+
+	/** a sampler which does nothing */
+	Sampler NONE = new Sampler() {
+		@Override
+		public void begin() {
+			// nothing to do
+		}
+		@Override
+		public void end() {
+			// nothing to do
+		}
+	};
+
+	/**
+	 * Called before a measured invocation.
+	 */
+	void begin();
+
+	/**
+	 * Called after a measured invocation.
+	 */
+	void end();
+
+}
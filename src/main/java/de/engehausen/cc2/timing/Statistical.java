@@ -0,0 +1,159 @@
+package de.engehausen.cc2.timing;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.data.Results.Statistics;
+
+/**
+ * Measures a task in the style of JMH: Each fork runs a number of warmup
+ * iterations which are discarded, followed by measurement iterations whose
+ * times are sampled. The results of all invocations are consumed by a
+ * {@link Blackhole}. Forks run in the same JVM, separated by a garbage collection.
+ * The record receives the distribution of the samples as {@link Statistics};
+ * the mean is used as the execution time of the record. The record is the one of
+ * the last measured invocation, so its response and progress belong to that invocation.
+ */
+public class Statistical implements Measurement {
+
+	/** the 99.95% quantile of the standard normal distribution */
+	private static final double Z = 3.290526731491926;
+
+	private final int warmups;
+	private final int iterations;
+	private final int forks;
+	private final Blackhole blackhole;
+
+	/**
+	 * Creates the measurement.
+	 * @param warmups the number of warmup iterations per fork, may be zero
+	 * @param iterations the number of measurement iterations per fork, must be positive
+	 * @param forks the number of forks, must be positive
+	 */
+	public Statistical(final int warmups, final int iterations, final int forks) {
+		this.warmups = warmups;
+		this.iterations = iterations;
+		this.forks = forks;
+		this.blackhole = new Blackhole();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Record measure(final Callable<Record> task, final Sampler sampler) throws Exception {
+		final long[] samples = new long[iterations * forks];
+		Record result = null;
+		for (int fork = 0, pos = 0; fork < forks; fork++) {
+			if (fork > 0) {
+				System.gc();
+			}
+			for (int i = 0; i < warmups; i++) {
+				if (Thread.currentThread().isInterrupted()) {
+					// the task timed out, its remaining invocations are skipped
+					return result;
+				}
+				blackhole.consume(task.call());
+			}
+			for (int i = 0; i < iterations; i++) {
+				if (Thread.currentThread().isInterrupted()) {
+					return result;
+				}
+				sampler.begin();
+				final long then = System.nanoTime();
+				result = task.call();
+				samples[pos++] = System.nanoTime() - then;
+				sampler.end();
+				blackhole.consume(result);
+			}
+		}
+		if (result != null) {
+			result.statistics = statistics(samples);
+			result.millis = result.statistics.mean;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("statistical (%d warmups, %d iterations, %d forks)", Integer.valueOf(warmups), Integer.valueOf(iterations), Integer.valueOf(forks));
+	}
+
+	/**
+	 * Computes the statistics for the given samples.
+	 * @param samples the samples in nanoseconds, must not be empty
+	 * @return the statistics in milliseconds
+	 */
+	protected static Statistics statistics(final long[] samples) {
+		final long[] sorted = samples.clone();
+		Arrays.sort(sorted);
+		final int n = sorted.length;
+		double sum = 0;
+		for (final long sample : sorted) {
+			sum += sample;
+		}
+		final double mean = sum / n;
+		double squares = 0;
+		for (final long sample : sorted) {
+			squares += (sample - mean) * (sample - mean);
+		}
+		final Statistics result = new Statistics();
+		result.samples = n;
+		result.mean = millis(mean);
+		result.error = n > 1 ? millis(studentT(n - 1) * Math.sqrt(squares / (n - 1)) / Math.sqrt(n)) : 0;
+		result.min = millis(sorted[0]);
+		result.max = millis(sorted[n - 1]);
+		result.p50 = millis(percentile(sorted, 50));
+		result.p90 = millis(percentile(sorted, 90));
+		result.p99 = millis(percentile(sorted, 99));
+		return result;
+	}
+
+	private static double millis(final double nanos) {
+		return nanos / 1000000d;
+	}
+
+	private static long percentile(final long[] sorted, final int percent) {
+		final int rank = (int) Math.ceil(percent / 100d * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	/**
+	 * Returns the two-sided 99.9% quantile of the Student t distribution
+	 * using Hill's approximation (CACM algorithm 396), which is the
+	 * confidence level JMH reports its error with.
+	 * @param df the degrees of freedom, must be positive
+	 * @return the quantile
+	 */
+	protected static double studentT(final int df) {
+		final double p = 0.001;
+		if (df == 1) {
+			final double q = p * Math.PI / 2;
+			return Math.cos(q) / Math.sin(q);
+		}
+		if (df == 2) {
+			return Math.sqrt(2 / (p * (2 - p)) - 2);
+		}
+		final double a = 1 / (df - 0.5);
+		final double b = 48 / (a * a);
+		double c = ((20700 * a / b - 98) * a - 16) * a + 96.36;
+		final double d = ((94.5 / (b + c) - 3) / b + 1) * Math.sqrt(a * Math.PI / 2) * df;
+		double y = Math.pow(d * p, 2d / df);
+		if (y > 0.05 + a) {
+			final double x = Z;
+			y = x * x;
+			if (df < 5) {
+				c += 0.3 * (df - 4.5) * (x + 0.6);
+			}
+			c = (((0.05 * d * x - 5) * x - 7) * x - 2) * x + b + c;
+			y = (((((0.4 * y + 6.3) * y + 36) * y + 94.5) / c - y - 3) / b + 1) * x;
+			y = a * y * y;
+			y = y > 0.002 ? Math.exp(y) - 1 : 0.5 * y * y + y;
+		} else {
+			y = ((1 / (((df + 6) / (df * y) - 0.089 * d - 0.822) * (df + 2) * 3) + 0.5 / (df + 4)) * y - 1) * (df + 1) / (df + 2) + 1 / y;
+		}
+		return Math.sqrt(df * y);
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Strategies for measuring the execution time of challenge solutions.
+ * The {@link de.engehausen.cc2.Executor} uses a {@link de.engehausen.cc2.timing.Measurement}
+ * to time each contribution for each input.
+ */
+package de.engehausen.cc2.timing;
@@ -0,0 +1,104 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Results.Improvement;
+import de.engehausen.cc2.data.Results.Record;
+
+/**
+ * Records the paths published by an {@link de.engehausen.cc2.api.AnytimeBusyBeeFunction}
+ * during one invocation. Each published path is checked when it arrives; valid paths
+ * within the time limit which are faster than all previous ones are kept as improvements
+ * together with the time since the start of the invocation.
+ */
+public class BusyBeeProgress implements Consumer<int[]> {
+
+	private final BusyBeeData data;
+	private final BusyBeeGraph graph;
+	private final long start;
+	private final long[] visited;
+	private final List<long[]> improvements;
+
+	/**
+	 * Creates the recorder for an invocation starting now.
+	 * @param data the input data, must not be {@code null}
+	 */
+	public BusyBeeProgress(final BusyBeeData data) {
+		this.data = data;
+		this.graph = BusyBeeGraph.of(data);
+		this.visited = new long[(graph.size() + 63) >>> 6];
+		this.improvements = new ArrayList<>();
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Records a published path.
+	 * @param path the flower ids of the path, may be {@code null}
+	 */
+	@Override
+	public synchronized void accept(final int[] path) {
+		final long nanos = System.nanoTime() - start;
+		final long cost = cost(path);
+		if (cost >= 0 && cost <= data.maxTime && (improvements.isEmpty() || cost < improvements.get(improvements.size() - 1)[1])) {
+			improvements.add(new long[] { nanos, cost });
+		}
+	}
+
+	/**
+	 * Returns the time of the given path.
+	 * @param path the flower ids of the path
+	 * @return the time, or {@code -1} if the path does not visit each flower exactly once along connections
+	 */
+	protected long cost(final int[] path) {
+		if (path == null || path.length != graph.size() || path.length == 0) {
+			return -1;
+		}
+		Arrays.fill(visited, 0L);
+		long result = 0;
+		for (int i = 0; i < path.length; i++) {
+			final int id = path[i];
+			if (id < 0 || id >= graph.size() || (visited[id >>> 6] & (1L << id)) != 0) {
+				return -1;
+			}
+			visited[id >>> 6] |= 1L << id;
+			if (i > 0) {
+				final int step = graph.time(path[i - 1], id);
+				if (step == BusyBeeGraph.NONE) {
+					return -1;
+				}
+				result += step;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the time to the first and to the best published path and the
+	 * improvements over time to the given record.
+	 * @param record the record of the invocation, must not be {@code null}
+	 */
+	public synchronized void fill(final Record record) {
+		if (improvements.isEmpty()) {
+			return;
+		}
+		final int bound = data.empty ? 0 : BusyBeeVerifier.lowerBound(data);
+		record.firstMillis = Double.valueOf(improvements.get(0)[0] / 1000000d);
+		record.bestMillis = Double.valueOf(improvements.get(improvements.size() - 1)[0] / 1000000d);
+		record.improvements = new ArrayList<>(improvements.size());
+		for (final long[] entry : improvements) {
+			final Improvement improvement = new Improvement();
+			improvement.millis = entry[0] / 1000000d;
+			improvement.cost = entry[1];
+			if (bound > 0) {
+				improvement.gap = Double.valueOf(100d * (entry[1] - bound) / bound);
+			}
+			record.improvements.add(improvement);
+		}
+	}
+
+}
@@ -1,21 +1,36 @@
 package de.engehausen.cc2.verifiers;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
-import de.engehausen.cc2.api.Connection;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import de.engehausen.cc2.api.Verifier;
 import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.reference.PathBound;
 
 /**
  * Verifies busy bee challenge responses.
+ * The graph of an input is indexed once (see {@link BusyBeeGraph#of(BusyBeeData)}),
+ * so that verifying a response only looks up the flowers and walks the path.
+ * Passing paths are scored with their time and its gap to a lower bound of the
+ * fastest path (see {@link PathBound}), which is computed once per input.
  */
 public class BusyBeeVerifier implements Verifier<List<String>, BusyBeeData> {
 
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+	private static final LoadingCache<BusyBeeData, Integer> BOUNDS = CacheBuilder
+		.newBuilder()
+		.weakKeys()
+		.build(CacheLoader.from(data -> Integer.valueOf(PathBound.of(BusyBeeGraph.of(data), data.maxTime))));
+
 	/**
 	 * Verifies a busy bee challenge response.
 	 * The list of nodes must
@@ -40,36 +55,78 @@ public class BusyBeeVerifier implements Verifier<List<String>, BusyBeeData> {
 			// expecting empty list
 			return nodes.isEmpty() ? null : "the list must be empty";
 		}
-		final Set<String> allNodes = new HashSet<>();
-		final Map<String, Integer> distances = new HashMap<>();
-		for (final Connection connection : data.connections) {
-			allNodes.add(connection.a);
-			allNodes.add(connection.b);
-			distances.put(connection.a + "." + connection.b, Integer.valueOf(connection.time));
-			distances.put(connection.b + "." + connection.a, Integer.valueOf(connection.time));
-		}
-		if (nodes.size() != allNodes.size()) {
+		final BusyBeeGraph graph = BusyBeeGraph.of(data);
+		if (nodes.size() != graph.size()) {
 			return "all nodes must be visited";
 		}
-		allNodes.removeAll(nodes);
-		if (!allNodes.isEmpty()) {
-			return "the path contained duplicates";
+		final Scratch scratch = SCRATCH.get().ensure(graph.size());
+		final int[] path = scratch.path;
+		final long[] visited = scratch.visited;
+		int count = 0;
+		for (final String node : nodes) {
+			final int id = graph.id(node);
+			if (id < 0 || (visited[id >>> 6] & (1L << id)) != 0) {
+				return "the path contained duplicates";
+			}
+			visited[id >>> 6] |= 1L << id;
+			path[count++] = id;
 		}
-		final Iterator<String> path = nodes.iterator();
-		String last = path.next();
 		int total = 0;
-		while (path.hasNext()) {
-			final String to = path.next();
-			final Integer step = distances.get(last + "." + to);
-			if (step == null) {
-				return "illegal connection " + last + " to " + to;
+		for (int i = 1; i < count; i++) {
+			final int step = graph.time(path[i - 1], path[i]);
+			if (step == BusyBeeGraph.NONE) {
+				return "illegal connection " + graph.name(path[i - 1]) + " to " + graph.name(path[i]);
 			}
-			total += step.intValue();
-			last = to;
+			total += step;
 		}
 		return total <= data.maxTime ? null : "not within time limit";
 	}
 
+	/**
+	 * Builds the index and the lower bound of the input.
+	 * @param data the input data
+	 */
+	@Override
+	public void prepare(final BusyBeeData data) {
+		BusyBeeGraph.of(data);
+		if (!data.empty) {
+			lowerBound(data);
+		}
+	}
+
+	/**
+	 * Records the time of the path and its gap to the lower bound of the input.
+	 * @param nodes the verified list in which to visit the flowers
+	 * @param data the input data
+	 * @param record the record of the response
+	 */
+	@Override
+	public void score(final List<String> nodes, final BusyBeeData data, final Record record) {
+		if (nodes.isEmpty()) {
+			return;
+		}
+		final BusyBeeGraph graph = BusyBeeGraph.of(data);
+		long total = 0;
+		int last = graph.id(nodes.get(0));
+		for (int i = 1; i < nodes.size(); i++) {
+			final int next = graph.id(nodes.get(i));
+			total += graph.time(last, next);
+			last = next;
+		}
+		final int bound = lowerBound(data);
+		record.cost = Long.valueOf(total);
+		record.gap = Double.valueOf(bound > 0 ? 100d * (total - bound) / bound : 0);
+	}
+
+	/**
+	 * Returns a lower bound of the time of the fastest path through the flowers of an input.
+	 * @param data the input data
+	 * @return the lower bound, or {@link PathBound#UNREACHABLE} if no path exists
+	 */
+	public static int lowerBound(final BusyBeeData data) {
+		return BOUNDS.getUnchecked(data).intValue();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -78,4 +135,44 @@ public class BusyBeeVerifier implements Verifier<List<String>, BusyBeeData> {
 		return input == null ? null : input.toString();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean print(final List<String> input, final Writer out) throws IOException {
+		if (input == null) {
+			return false;
+		}
+		out.write('[');
+		for (final Iterator<String> i = input.iterator(); i.hasNext(); ) {
+			out.write(String.valueOf(i.next()));
+			if (i.hasNext()) {
+				out.write(", ");
+			}
+		}
+		out.write(']');
+		return true;
+	}
+
+	/**
+	 * The buffers of a verification, reused by each thread: the ids of the path
+	 * and a bit set of the visited flowers.
+	 */
+	private static class Scratch {
+
+		int[] path = new int[0];
+		long[] visited = new long[0];
+
+		Scratch ensure(final int size) {
+			if (path.length < size) {
+				path = new int[size];
+				visited = new long[(size + 63) >>> 6];
+			} else {
+				Arrays.fill(visited, 0, (size + 63) >>> 6, 0L);
+			}
+			return this;
+		}
+
+	}
+
 }
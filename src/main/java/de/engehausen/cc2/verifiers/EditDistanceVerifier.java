@@ -1,5 +1,7 @@
 package de.engehausen.cc2.verifiers;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 import de.engehausen.cc2.api.CharacterOperation;
@@ -8,6 +10,9 @@ import de.engehausen.cc2.data.EditDistanceData;
 
 /**
  * Verifies edit distance challenge responses.
+ * The operations are applied to a {@link PieceTable} rather than to a copy of
+ * the input string, so that long strings are neither copied nor shifted for
+ * each operation.
  */
 public class EditDistanceVerifier implements Verifier<List<CharacterOperation>, EditDistanceData> {
 
@@ -31,14 +36,13 @@ public class EditDistanceVerifier implements Verifier<List<CharacterOperation>,
 		if (edits.size() != data.distance) {
 			return "unexpected number of operations";
 		}
-		final StringBuilder builder = new StringBuilder(128);
-		builder.append(data.from);
-		applyOperations(edits, builder);
-		if (builder.toString().equals(data.to)) {
+		final PieceTable text = new PieceTable(data.from, edits.size());
+		applyOperations(edits, text);
+		if (text.contentEquals(data.to)) {
 			// the operations transform input into the target
 			return null;
 		}
-		return "operations produce unexpected string: " + builder.toString();
+		return "operations produce unexpected string: " + text.toString();
 	}
 
 	/**
@@ -56,24 +60,43 @@ public class EditDistanceVerifier implements Verifier<List<CharacterOperation>,
 		return null;
 	}
 
-	protected void applyOperations(final List<CharacterOperation> operations, final StringBuilder current) {
-		try {
-			for (final CharacterOperation op : operations) {
-				switch (op.type()) {
-				case REMOVE:
-					current.delete(op.position(), 1 + op.position());
-					break;
-				case REPLACE:
-					current.replace(op.position(), 1 + op.position(), Character.toString(op.character()));
-					break;
-				case INSERT:
-					current.insert(op.position(), op.character());
-					break;
-				}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean print(final List<CharacterOperation> input, final Writer out) throws IOException {
+		if (input == null) {
+			return false;
+		}
+		for (final CharacterOperation op : input) {
+			out.write(op.toString());
+		}
+		return true;
+	}
+
+	/**
+	 * Applies the operations to the text, up to the first operation at an invalid position.
+	 * @param operations the operations
+	 * @param current the text
+	 */
+	protected void applyOperations(final List<CharacterOperation> operations, final PieceTable current) {
+		for (final CharacterOperation op : operations) {
+			final boolean applied;
+			switch (op.type()) {
+			case REMOVE:
+				applied = current.remove(op.position());
+				break;
+			case REPLACE:
+				applied = current.replace(op.position(), op.character());
+				break;
+			default:
+				applied = current.insert(op.position(), op.character());
+				break;
+			}
+			if (!applied) {
+				// keep the not completely edited text...
+				return;
 			}
-		} catch (IndexOutOfBoundsException e) {
-			// return the not completely edited string builder...
-			return;
 		}
 	}
 
@@ -1,5 +1,7 @@
 package de.engehausen.cc2.verifiers;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -65,4 +67,12 @@ public class HuffmanVerifier implements Verifier<LispObject, HuffmanData> {
 		return input == null ? null : input.printObject();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean print(final LispObject input, final Writer out) throws IOException {
+		return LispPrinter.print(input, out);
+	}
+
 }
@@ -0,0 +1,57 @@
+package de.engehausen.cc2.verifiers;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.armedbear.lisp.Cons;
+import org.armedbear.lisp.Lisp;
+import org.armedbear.lisp.LispObject;
+
+/**
+ * Writes Lisp objects element by element instead of printing
+ * them into a single string, so that capped output of large
+ * lists stops early. Atoms are printed by Lisp.
+ */
+final class LispPrinter {
+
+	private LispPrinter() {
+		// static helper
+	}
+
+	/**
+	 * Writes the given object.
+	 * @param object the object to write, may be {@code null}
+	 * @param out the writer to write to, must not be {@code null}
+	 * @return {@code true} if the object was written, {@code false} if it is {@code null}
+	 * @throws IOException in case of error
+	 */
+	static boolean print(final LispObject object, final Writer out) throws IOException {
+		if (object == null) {
+			return false;
+		}
+		write(object, out);
+		return true;
+	}
+
+	private static void write(final LispObject object, final Writer out) throws IOException {
+		if (object instanceof Cons) {
+			out.write('(');
+			LispObject current = object;
+			write(current.car(), out);
+			current = current.cdr();
+			while (current instanceof Cons) {
+				out.write(' ');
+				write(current.car(), out);
+				current = current.cdr();
+			}
+			if (current != Lisp.NIL) {
+				out.write(" . ");
+				write(current, out);
+			}
+			out.write(')');
+		} else {
+			out.write(object.printObject());
+		}
+	}
+
+}
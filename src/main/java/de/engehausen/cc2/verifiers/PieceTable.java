@@ -0,0 +1,252 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.Arrays;
+
+/**
+ * Editable text for applying many single character operations to a long string.
+ * The text is a sequence of pieces, each referring to a range of the original
+ * string or to a character added by an operation. The pieces are kept in an
+ * implicit treap keyed by their position in the text, so that inserting, removing
+ * or replacing a character takes {@code O(log n)} expected time, where {@code n}
+ * is the number of pieces; the original string is never copied.
+ * <p>Out-of-range positions are treated like {@link StringBuilder} does: removing
+ * at the end of the text does nothing, replacing at the end appends.</p>
+ */
+public class PieceTable {
+
+	private static final int NIL = 0;
+
+	private final String original;
+	private final StringBuilder added;
+	// the nodes of the treap; node 0 is the empty tree
+	private int[] left;
+	private int[] right;
+	private int[] priorities;
+	// start of the piece in the original string, or -1 - index in the added characters
+	private int[] starts;
+	private int[] lengths;
+	// length of the text of the subtree
+	private int[] sizes;
+	private int count;
+	private int root;
+	private int seed;
+	// results of split(int, int)
+	private int lower;
+	private int upper;
+
+	/**
+	 * Creates the text.
+	 * @param original the original string, must not be {@code null}
+	 * @param operations the expected number of operations
+	 */
+	public PieceTable(final String original, final int operations) {
+		this.original = original;
+		this.added = new StringBuilder(Math.max(16, operations));
+		final int capacity = Math.max(16, operations + 2);
+		left = new int[capacity];
+		right = new int[capacity];
+		priorities = new int[capacity];
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		sizes = new int[capacity];
+		count = 1;
+		seed = 0x9e3779b9;
+		root = original.isEmpty() ? NIL : node(0, original.length());
+	}
+
+	/**
+	 * Returns the length of the text.
+	 * @return the length of the text
+	 */
+	public int length() {
+		return sizes[root];
+	}
+
+	/**
+	 * Inserts a character.
+	 * @param position the position of the new character
+	 * @param c the character
+	 * @return {@code true} if the character was inserted, {@code false} if the position is out of range
+	 */
+	public boolean insert(final int position, final char c) {
+		if (position < 0 || position > length()) {
+			return false;
+		}
+		added.append(c);
+		final int node = node(-added.length(), 1);
+		split(root, position);
+		final int after = upper;
+		root = merge(merge(lower, node), after);
+		return true;
+	}
+
+	/**
+	 * Removes a character.
+	 * @param position the position of the character
+	 * @return {@code true} if the character was removed, or the position is the end of the text;
+	 * {@code false} if the position is out of range
+	 */
+	public boolean remove(final int position) {
+		if (position < 0 || position > length()) {
+			return false;
+		}
+		if (position < length()) {
+			split(root, position);
+			final int before = lower;
+			split(upper, 1);
+			root = merge(before, upper);
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces a character.
+	 * @param position the position of the character; at the end of the text, the character is appended
+	 * @param c the new character
+	 * @return {@code true} if the character was replaced, {@code false} if the position is out of range
+	 */
+	public boolean replace(final int position, final char c) {
+		return remove(position) && insert(position, c);
+	}
+
+	/**
+	 * Indicates whether the text equals the given string, without building the text.
+	 * @param text the string to compare to, must not be {@code null}
+	 * @return {@code true} if the text equals the string
+	 */
+	public boolean contentEquals(final String text) {
+		if (text.length() != length()) {
+			return false;
+		}
+		final int[] stack = new int[count];
+		int size = 0;
+		int node = root;
+		int offset = 0;
+		while (node != NIL || size > 0) {
+			while (node != NIL) {
+				stack[size++] = node;
+				node = left[node];
+			}
+			node = stack[--size];
+			final int start = starts[node];
+			if (start >= 0) {
+				if (!text.regionMatches(offset, original, start, lengths[node])) {
+					return false;
+				}
+			} else if (text.charAt(offset) != added.charAt(-1 - start)) {
+				return false;
+			}
+			offset += lengths[node];
+			node = right[node];
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the text.
+	 * @return the text, never {@code null}
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder(length());
+		final int[] stack = new int[count];
+		int size = 0;
+		int node = root;
+		while (node != NIL || size > 0) {
+			while (node != NIL) {
+				stack[size++] = node;
+				node = left[node];
+			}
+			node = stack[--size];
+			final int start = starts[node];
+			if (start >= 0) {
+				result.append(original, start, start + lengths[node]);
+			} else {
+				result.append(added.charAt(-1 - start));
+			}
+			node = right[node];
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Splits a tree into the pieces before the given position ({@link #lower})
+	 * and the pieces from the given position on ({@link #upper}); a piece
+	 * spanning the position is split in two.
+	 */
+	private void split(final int node, final int position) {
+		if (node == NIL) {
+			lower = NIL;
+			upper = NIL;
+			return;
+		}
+		final int before = sizes[left[node]];
+		if (position <= before) {
+			split(left[node], position);
+			left[node] = upper;
+			update(node);
+			upper = node;
+		} else if (position >= before + lengths[node]) {
+			split(right[node], position - before - lengths[node]);
+			right[node] = lower;
+			update(node);
+			lower = node;
+		} else {
+			// only pieces of the original string are longer than one character
+			final int cut = position - before;
+			final int rest = node(starts[node] + cut, lengths[node] - cut);
+			final int after = right[node];
+			lengths[node] = cut;
+			right[node] = NIL;
+			update(node);
+			lower = node;
+			upper = merge(rest, after);
+		}
+	}
+
+	private int merge(final int a, final int b) {
+		if (a == NIL) {
+			return b;
+		}
+		if (b == NIL) {
+			return a;
+		}
+		if (priorities[a] > priorities[b]) {
+			right[a] = merge(right[a], b);
+			update(a);
+			return a;
+		}
+		left[b] = merge(a, left[b]);
+		update(b);
+		return b;
+	}
+
+	private void update(final int node) {
+		sizes[node] = sizes[left[node]] + lengths[node] + sizes[right[node]];
+	}
+
+	private int node(final int start, final int length) {
+		if (count == left.length) {
+			final int capacity = 2 * count;
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+			priorities = Arrays.copyOf(priorities, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+		}
+		final int result = count++;
+		// xorshift random priorities
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		priorities[result] = seed;
+		starts[result] = start;
+		lengths[result] = length;
+		left[result] = NIL;
+		right[result] = NIL;
+		sizes[result] = length;
+		return result;
+	}
+
+}
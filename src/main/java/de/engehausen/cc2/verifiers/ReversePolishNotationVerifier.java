@@ -1,5 +1,7 @@
 package de.engehausen.cc2.verifiers;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayDeque;
 import java.util.Deque;
@@ -71,4 +73,12 @@ public class ReversePolishNotationVerifier implements Verifier<LispObject, Rever
 		return input == null ? null : input.printObject();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean print(final LispObject input, final Writer out) throws IOException {
+		return LispPrinter.print(input, out);
+	}
+
 }
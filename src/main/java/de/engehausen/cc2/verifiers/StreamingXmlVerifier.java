@@ -0,0 +1,353 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import de.engehausen.cc2.api.ResponseBuffer;
+import de.engehausen.cc2.data.XmlData;
+
+/**
+ * Verifies XML transformation challenge responses while they are produced,
+ * as SAX events, without building the output document.
+ * Only assertions of the form {@code count(path) op number} are streamable,
+ * where the path is absolute and consists of child ({@code /}) and descendant
+ * ({@code //}) steps with name tests such as {@code item}, {@code p:item},
+ * {@code p:*} or {@code *}, and the operator is one of {@code = != < <= > >=}.
+ * As in {@link XmlVerifier}, prefixes resolve against the namespaces in scope
+ * at the root element of the output.
+ */
+public class StreamingXmlVerifier {
+
+	private static final Pattern COUNT = Pattern.compile("\\s*count\\(\\s*(/[^()\\[\\]@]*?)\\s*\\)\\s*(=|!=|<=|>=|<|>)\\s*(\\d+(?:\\.\\d+)?)\\s*");
+	private static final Pattern STEP = Pattern.compile("(//?)(\\*|(?:([A-Za-z_][\\w.\\-]*):)?([A-Za-z_][\\w.\\-]*|\\*))");
+	private static final int MAX_STEPS = Long.SIZE - 1;
+	private static final ThreadLocal<SAXTransformerFactory> FACTORIES = ThreadLocal.withInitial(() -> (SAXTransformerFactory) TransformerFactory.newInstance());
+
+	private final List<Assertion> assertions;
+
+	protected StreamingXmlVerifier(final List<Assertion> assertions) {
+		this.assertions = assertions;
+	}
+
+	/**
+	 * Compiles the assertions of the given data.
+	 * @param data the input data, must not be {@code null}
+	 * @return the verifier, or {@code null} if any of the assertions is not streamable
+	 */
+	public static StreamingXmlVerifier compile(final XmlData data) {
+		final List<Assertion> result = new ArrayList<>();
+		if (data.xpathAsserts != null) {
+			for (final String expression : data.xpathAsserts) {
+				final Assertion assertion = Assertion.parse(expression);
+				if (assertion == null) {
+					return null;
+				}
+				result.add(assertion);
+			}
+		}
+		return new StreamingXmlVerifier(result);
+	}
+
+	/**
+	 * Creates the handler consuming the output of one transformation.
+	 * @param cap the maximal number of bytes of the captured response; {@code 0} captures no response
+	 * @return the handler, never {@code null}
+	 * @throws TransformerConfigurationException in case of error
+	 */
+	public Handler newHandler(final int cap) throws TransformerConfigurationException {
+		if (cap > 0) {
+			final ResponseBuffer buffer = new ResponseBuffer(cap);
+			final TransformerHandler printer = FACTORIES.get().newTransformerHandler();
+			printer.getTransformer().setOutputProperty(OutputKeys.INDENT, "yes");
+			printer.getTransformer().setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+			printer.setResult(new StreamResult(buffer));
+			return new Handler(printer, buffer);
+		}
+		return new Handler(null, null);
+	}
+
+	/**
+	 * A streamable assertion: the number of elements on a path compared to a number.
+	 */
+	protected static class Assertion {
+
+		final String expression;
+		final String[] prefixes;
+		final String[] names;
+		final boolean[] descendant;
+		final String operator;
+		final double value;
+
+		Assertion(final String expression, final List<String[]> steps, final String operator, final double value) {
+			this.expression = expression;
+			this.prefixes = new String[steps.size()];
+			this.names = new String[steps.size()];
+			this.descendant = new boolean[steps.size()];
+			for (int i = 0; i < steps.size(); i++) {
+				final String[] step = steps.get(i);
+				descendant[i] = step[0].length() == 2;
+				prefixes[i] = step[1];
+				names[i] = step[2];
+			}
+			this.operator = operator;
+			this.value = value;
+		}
+
+		static Assertion parse(final String expression) {
+			final Matcher matcher = COUNT.matcher(expression);
+			if (!matcher.matches()) {
+				return null;
+			}
+			final String path = matcher.group(1).replaceAll("\\s+", "");
+			final List<String[]> steps = new ArrayList<>();
+			final Matcher step = STEP.matcher(path);
+			int end = 0;
+			while (step.find() && step.start() == end) {
+				steps.add(new String[] { step.group(1), step.group(3), step.group(4) == null ? step.group(2) : step.group(4) });
+				end = step.end();
+			}
+			if (end != path.length() || steps.isEmpty() || steps.size() > MAX_STEPS) {
+				return null;
+			}
+			return new Assertion(expression, steps, matcher.group(2), Double.parseDouble(matcher.group(3)));
+		}
+
+		boolean test(final long count) {
+			switch (operator) {
+				case "=":
+					return count == value;
+				case "!=":
+					return count != value;
+				case "<":
+					return count < value;
+				case "<=":
+					return count <= value;
+				case ">":
+					return count > value;
+				default:
+					return count >= value;
+			}
+		}
+
+	}
+
+	/**
+	 * Consumes the output of a transformation, counts the elements on the
+	 * paths of the assertions and optionally captures the output up to a cap.
+	 * The elements matching a path are tracked as the set of path steps matched
+	 * so far at each depth, so each element is checked in constant time per step.
+	 */
+	public class Handler extends DefaultHandler {
+
+		private final ContentHandler printer;
+		private final ResponseBuffer buffer;
+		private final Map<String, String> namespaces;
+		private final long[] counts;
+		private String[][] uris;
+		private final long[][] states;
+		private int depth;
+		private boolean printing;
+		private String error;
+
+		protected Handler(final ContentHandler printer, final ResponseBuffer buffer) {
+			this.printer = printer;
+			this.buffer = buffer;
+			this.printing = printer != null;
+			this.namespaces = new HashMap<>();
+			this.counts = new long[assertions.size()];
+			this.states = new long[assertions.size()][16];
+			for (final long[] state : states) {
+				state[0] = 1L;
+			}
+		}
+
+		/**
+		 * Returns the result of the verification; to be called once the transformation completed.
+		 * @return {@code null} if every assertion holds, or a string giving the reason for the failure.
+		 */
+		public String verify() {
+			if (error != null) {
+				return error;
+			}
+			for (int i = 0; i < counts.length; i++) {
+				if (!assertions.get(i).test(counts[i])) {
+					return "the expectation is not met: " + assertions.get(i).expression;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the captured output.
+		 * @return the output up to the cap, or {@code null} if no output was captured
+		 */
+		public String response() {
+			return buffer == null ? null : buffer.toString();
+		}
+
+		@Override
+		public void startDocument() throws SAXException {
+			if (printing) {
+				print(() -> printer.startDocument());
+			}
+		}
+
+		@Override
+		public void endDocument() throws SAXException {
+			if (printing) {
+				print(() -> printer.endDocument());
+			}
+		}
+
+		@Override
+		public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+			if (depth == 0) {
+				namespaces.put(prefix, uri);
+			}
+			if (printing) {
+				print(() -> printer.startPrefixMapping(prefix, uri));
+			}
+		}
+
+		@Override
+		public void endPrefixMapping(final String prefix) throws SAXException {
+			if (printing) {
+				print(() -> printer.endPrefixMapping(prefix));
+			}
+		}
+
+		@Override
+		public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) throws SAXException {
+			if (depth == 0) {
+				resolve();
+			}
+			depth++;
+			for (int i = 0; i < counts.length; i++) {
+				if (depth == states[i].length) {
+					states[i] = Arrays.copyOf(states[i], 2 * depth);
+				}
+				final long state = match(i, states[i][depth - 1], uri == null ? "" : uri, localName);
+				states[i][depth] = state;
+				if ((state & (1L << uris[i].length)) != 0) {
+					counts[i]++;
+				}
+			}
+			if (printing) {
+				print(() -> printer.startElement(uri, localName, qName, attributes));
+			}
+		}
+
+		@Override
+		public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+			depth--;
+			if (printing) {
+				print(() -> printer.endElement(uri, localName, qName));
+			}
+		}
+
+		@Override
+		public void characters(final char[] ch, final int start, final int length) throws SAXException {
+			if (printing) {
+				print(() -> printer.characters(ch, start, length));
+			}
+		}
+
+		@Override
+		public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+			if (printing) {
+				print(() -> printer.ignorableWhitespace(ch, start, length));
+			}
+		}
+
+		@Override
+		public void processingInstruction(final String target, final String data) throws SAXException {
+			if (printing) {
+				print(() -> printer.processingInstruction(target, data));
+			}
+		}
+
+		/**
+		 * Computes the steps matched at an element from the steps matched at its parent:
+		 * bit {@code k} is set if the first {@code k} steps of the path lead to the element.
+		 */
+		protected long match(final int index, final long parent, final String uri, final String localName) {
+			final Assertion assertion = assertions.get(index);
+			final String[] stepUris = uris[index];
+			long result = 0;
+			for (int k = 0; k < stepUris.length; k++) {
+				if ((parent & (1L << k)) != 0) {
+					if (assertion.descendant[k]) {
+						result |= 1L << k;
+					}
+					if ((stepUris[k] == null || stepUris[k].equals(uri)) && ("*".equals(assertion.names[k]) || assertion.names[k].equals(localName))) {
+						result |= 1L << (k + 1);
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Resolves the prefixes of the steps against the namespaces declared
+		 * on the root element; a {@code null} namespace matches any namespace.
+		 */
+		protected void resolve() {
+			uris = new String[counts.length][];
+			for (int i = 0; i < counts.length; i++) {
+				final Assertion assertion = assertions.get(i);
+				uris[i] = new String[assertion.names.length];
+				for (int k = 0; k < assertion.names.length; k++) {
+					final String prefix = assertion.prefixes[k];
+					if (prefix == null) {
+						uris[i][k] = "*".equals(assertion.names[k]) ? null : "";
+					} else {
+						uris[i][k] = namespaces.get(prefix);
+						if (uris[i][k] == null) {
+							// the assertion cannot be evaluated, as in the XPath case
+							uris[i][k] = "";
+							if (error == null) {
+								error = assertion.expression;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		private void print(final SaxCall call) throws SAXException {
+			try {
+				call.run();
+			} catch (SAXException | RuntimeException e) {
+				// the serializer reports the reached cap wrapped in either
+				if (!buffer.isTruncated()) {
+					throw e;
+				}
+				printing = false;
+			}
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface SaxCall {
+		void run() throws SAXException;
+	}
+
+}
@@ -1,11 +1,18 @@
 package de.engehausen.cc2.verifiers;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
@@ -17,21 +24,28 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 
-import com.google.common.base.Charsets;
-
 import de.engehausen.cc2.api.Verifier;
 import de.engehausen.cc2.data.XmlData;
 
 /**
  * Verifies XML transformation challenge responses.
+ * The XPath assertions are compiled once and reused across contributions
+ * and invocations. Neither {@link XPath} nor {@link XPathExpression} are
+ * thread-safe, so each thread uses an XPath instance and a cache of
+ * compiled expressions of its own.
  */
 public class XmlVerifier implements Verifier<Document, XmlData> {
 
+	private static final Pattern PREFIX = Pattern.compile("([A-Za-z_][\\w.\\-]*):(?!:)");
+
+	private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(Engine::new);
+
 	/**
 	 * Verifies a XML transformation challenge response.
 	 * The list of XPath expressions of the data must all evaluate to
@@ -44,18 +58,20 @@ public class XmlVerifier implements Verifier<Document, XmlData> {
 	@Override
 	public String verify(final Document document, final XmlData data) {
 		String lastExpression = null;
+		final Engine engine = engines.get();
+		engine.resolver.document = document;
 		try {
-			final XPath xpath = XPathFactory.newInstance().newXPath();
-			xpath.setNamespaceContext(new NamespaceResolver(document));
 			for (final String expression : data.xpathAsserts) {
 				lastExpression = expression;
-				final Boolean success = (Boolean) xpath.evaluate(expression, document, XPathConstants.BOOLEAN);
+				final Boolean success = (Boolean) engine.compile(expression).evaluate(document, XPathConstants.BOOLEAN);
 				if (Boolean.FALSE.equals(success)) {
 					return "the expectation is not met: " + expression;
 				}
 			}
 		} catch (XPathExpressionException e) {
 			return (lastExpression != null ? lastExpression : "" + " an error occurred: " + e.getMessage()).trim();
+		} finally {
+			engine.resolver.document = null;
 		}
 		return null;
 	}
@@ -65,19 +81,42 @@ public class XmlVerifier implements Verifier<Document, XmlData> {
 	 */
 	@Override
 	public String toString(final Document input) {
-		if (input != null) {
-			final ByteArrayOutputStream stream = new ByteArrayOutputStream(4096);
-			try {
-				printDocument(input, stream);
-			} catch (TransformerException | IOException e) {
-				return null;
-			}
-			return new String(stream.toByteArray(), Charsets.UTF_8);
+		final StringWriter writer = new StringWriter(4096);
+		try {
+			return print(input, writer) ? writer.toString() : null;
+		} catch (IOException e) {
+			return null;
 		}
-		return null;
+	}
+
+	/**
+	 * Writes the pretty-printed document, using a serializer kept per thread.
+	 * @param input the document, may be {@code null}
+	 * @param out the writer to write to, must not be {@code null}
+	 * @return {@code true} if the document was written, {@code false} if it is {@code null}
+	 * @throws IOException in case of error
+	 */
+	@Override
+	public boolean print(final Document input, final Writer out) throws IOException {
+		if (input == null) {
+			return false;
+		}
+		final Engine engine = engines.get();
+		try {
+			engine.printer().transform(new DOMSource(input), new StreamResult(out));
+		} catch (TransformerException e) {
+			// the serializer stopped somewhere in the middle of the document
+			engine.printer = null;
+			throw new IOException(e);
+		}
+		return true;
 	}
 
 	public static void printDocument(final Document doc, final OutputStream out) throws IOException, TransformerException {
+		newPrinter().transform(new DOMSource(doc), new StreamResult(new OutputStreamWriter(out, "UTF-8")));
+	}
+
+	protected static Transformer newPrinter() throws TransformerException {
 		final TransformerFactory tf = TransformerFactory.newInstance();
 		final Transformer transformer = tf.newTransformer();
 		transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
@@ -85,17 +124,85 @@ public class XmlVerifier implements Verifier<Document, XmlData> {
 		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
 		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
 		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-		transformer.transform(new DOMSource(doc), new StreamResult(new OutputStreamWriter(out, "UTF-8")));
+		return transformer;
 	}
 
-	private static class NamespaceResolver implements NamespaceContext {
+	/**
+	 * The XPath instance of a thread with its compiled expressions,
+	 * and the serializer of the documents.
+	 * Prefixes are bound when an expression is compiled, so a compiled
+	 * expression is cached under the expression and the namespaces
+	 * its prefixes resolve to in the current document.
+	 */
+	private static class Engine {
+
+		private final XPath xpath;
+		private final NamespaceResolver resolver;
+		private final Map<String, List<String>> prefixes;
+		private final Map<String, XPathExpression> compiled;
+		private Transformer printer;
+
+		Engine() {
+			xpath = XPathFactory.newInstance().newXPath();
+			resolver = new NamespaceResolver();
+			xpath.setNamespaceContext(resolver);
+			prefixes = new HashMap<>();
+			compiled = new HashMap<>();
+		}
 
-		private final Document document;
+		Transformer printer() throws TransformerException {
+			if (printer == null) {
+				printer = newPrinter();
+			}
+			return printer;
+		}
+
+		XPathExpression compile(final String expression) throws XPathExpressionException {
+			final String key = key(expression);
+			XPathExpression result = compiled.get(key);
+			if (result == null) {
+				result = xpath.compile(expression);
+				compiled.put(key, result);
+			}
+			return result;
+		}
 
-		public NamespaceResolver(final Document document) {
-			this.document = document;
+		private String key(final String expression) {
+			final List<String> used = prefixes.computeIfAbsent(expression, Engine::prefixes);
+			if (used.isEmpty()) {
+				return expression;
+			}
+			final StringBuilder result = new StringBuilder(expression);
+			for (final String prefix : used) {
+				result
+					.append('\n')
+					.append(prefix)
+					.append('=')
+					.append(resolver.getNamespaceURI(prefix));
+			}
+			return result.toString();
 		}
 
+		private static List<String> prefixes(final String expression) {
+			final List<String> result = new ArrayList<>();
+			final Matcher matcher = PREFIX.matcher(expression);
+			while (matcher.find()) {
+				if (!result.contains(matcher.group(1))) {
+					result.add(matcher.group(1));
+				}
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * Resolves namespaces through the document currently verified.
+	 */
+	private static class NamespaceResolver implements NamespaceContext {
+
+		private Document document;
+
 		/**
 		 * Returns the namespace URIs by delegating to the underlying
 		 * document.
@@ -1,7 +1,18 @@
 package de.engehausen.cc2;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -9,8 +20,15 @@ import org.junit.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.api.FlowerGraph;
 import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.InputsLoader;
+import de.engehausen.cc2.data.LazyList;
 import de.engehausen.cc2.data.Results;
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.data.XmlData;
 import de.engehausen.cc2.reporters.Console;
 
 public class ExecutorTest {
@@ -38,6 +56,126 @@ public class ExecutorTest {
 		}
 	}
 	
+	@Test
+	public void testBusyBeeGraph() throws IOException, ClassNotFoundException {
+		final Inputs busyBee = new ObjectMapper().readValue(ExecutorTest.class.getResourceAsStream("/testInputs.json"), Inputs.class);
+		try (final Executor executor = new Executor(busyBee)) {
+			executor.run(Class.forName("de.engehausen.cc2.impl.tampering.package-info"));
+			executor.run(Class.forName("de.engehausen.cc2.impl.examples.graph.package-info"));
+			final BusyBeeData data = busyBee.beeGraphs.get(0);
+			// the modified copy of the graph neither affects the verification nor the next contribution
+			final Record tampering = data.results.get("tampering");
+			Assert.assertFalse(tampering.ok);
+			Assert.assertEquals("illegal connection A to C", tampering.reason);
+			Assert.assertTrue(data.results.get("examples.graph").ok);
+			final Record invalid = executor.verifiedPath(BusyBeeGraph.of(data), new int[] { 0, 1, 3 }, data);
+			Assert.assertFalse(invalid.ok);
+			Assert.assertEquals("invalid flower id 3", invalid.reason);
+		}
+	}
+
+	@Test
+	public void testWithoutKeepingRecords() throws IOException, ClassNotFoundException {
+		final Inputs busyBee = new ObjectMapper().readValue(ExecutorTest.class.getResourceAsStream("/testInputs.json"), Inputs.class);
+		final Settings settings = new Settings();
+		settings.keepRecords = false;
+		final List<Record> recorded = new ArrayList<>();
+		try (final Executor executor = new Executor(busyBee, settings) {
+			@Override
+			protected void recorded(final String name, final Results results, final Record record) {
+				recorded.add(record);
+			}
+		}) {
+			executor.run(Class.forName("de.engehausen.cc2.impl.examples.graph.package-info"));
+		}
+		Assert.assertEquals(1, recorded.size());
+		Assert.assertTrue(recorded.get(0).ok);
+		Assert.assertNull(busyBee.beeGraphs.get(0).results);
+	}
+
+	@Test
+	public void testChallengeByChallenge() throws IOException, ClassNotFoundException {
+		final Path file = Files.createTempFile("cc2-inputs", ".json");
+		try {
+			try (final InputStream stream = ExecutorTest.class.getResourceAsStream("/testInputs.json")) {
+				Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			final Inputs lazy = InputsLoader.load(file);
+			final Set<BusyBeeData> verified = Collections.newSetFromMap(new IdentityHashMap<>());
+			try (final Executor executor = new Executor(lazy) {
+				@Override
+				protected Record verifiedPath(final FlowerGraph graph, final int[] path, final BusyBeeData data) {
+					verified.add(data);
+					return super.verifiedPath(graph, path, data);
+				}
+			}) {
+				executor.run(Arrays.asList(
+					Class.forName("de.engehausen.cc2.impl.tampering.package-info"),
+					Class.forName("de.engehausen.cc2.impl.examples.graph.package-info")));
+			}
+			// both contributions were run with the same input data, loaded once
+			Assert.assertEquals(1, verified.size());
+			Assert.assertFalse(((LazyList<?>) lazy.beeGraphs).isLoaded());
+			Assert.assertEquals(2, lazy.beeGraphs.get(0).results.size());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testTimeout() throws InterruptedException {
+		final BusyBeeData data = new BusyBeeData(new ArrayList<>(), 0, true);
+		data.timeout = Long.valueOf(50);
+		final AtomicInteger calls = new AtomicInteger();
+		try (final Executor executor = new Executor(inputs)) {
+			Assert.assertFalse(executor.timedExecution("slow", data, () -> {
+				calls.incrementAndGet();
+				// ignores the interruption
+				final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+				while (System.nanoTime() < end) {
+					Thread.yield();
+				}
+				return new Record(null, "late", 0);
+			}));
+			Thread.sleep(500);
+			Assert.assertEquals("no invocation after the timeout", 1, calls.get());
+			final Record record = data.results.get("slow");
+			Assert.assertTrue(record.timedOut);
+			Assert.assertSame(record, executor.putRecord("slow", data, new Record(null, "late", 0)));
+			Assert.assertTrue(data.results.get("slow").timedOut);
+		}
+	}
+
+	@Test
+	public void testMissingXmlFile() throws IOException {
+		final Path missing = Files.createTempDirectory("cc2-xml").resolve("missing.xml");
+		final XmlData data = new XmlData(null, null, null);
+		data.xmlFile = missing.toString();
+		final Inputs xml = new Inputs();
+		xml.xmlEasy = Collections.singletonList(data);
+		try (final Executor executor = new Executor(xml)) {
+			executor.processXml("examples.xslt", "/examples/xsltEasyDemo.xslt", i -> i.xmlEasy);
+		} finally {
+			Files.delete(missing.getParent());
+		}
+		final Record record = data.results.get("examples.xslt");
+		Assert.assertFalse(record.ok);
+		Assert.assertEquals("input file not found: " + missing, record.reason);
+	}
+
+	@Test
+	public void testSetup() {
+		final Settings settings = new Settings();
+		final String dom;
+		try (final Executor executor = new Executor(inputs, settings)) {
+			dom = executor.setup();
+		}
+		settings.xmlStreaming = true;
+		try (final Executor executor = new Executor(inputs, settings)) {
+			Assert.assertNotEquals(dom, executor.setup());
+		}
+	}
+
 	protected void verifyResults(final List<? extends Results> list) {
 		list
 			.stream()
@@ -0,0 +1,46 @@
+package de.engehausen.cc2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.FlowerFields.Field;
+import de.engehausen.cc2.FlowerFields.Model;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.reference.BusyBeeSolver;
+import de.engehausen.cc2.reference.BusyBeeSolver.Solution;
+
+public class FlowerFieldsTest {
+
+	private final BusyBeeSolver solver = new BusyBeeSolver();
+
+	@Test
+	public void testSmallFieldsAreSolved() {
+		final FlowerFields generator = new FlowerFields(3, solver);
+		for (final Model model : Model.values()) {
+			final Field field = generator.field(model, 12);
+			Assert.assertTrue(field.solved);
+			final BusyBeeData tight = field.tight();
+			final Solution solution = solver.solve(BusyBeeGraph.of(tight));
+			Assert.assertEquals(12, BusyBeeGraph.of(tight).size());
+			Assert.assertEquals(solution.time, tight.maxTime);
+			Assert.assertFalse(tight.empty);
+			final BusyBeeData infeasible = field.infeasible();
+			Assert.assertEquals(solution.time - 1, infeasible.maxTime);
+			Assert.assertTrue(infeasible.empty);
+		}
+	}
+
+	@Test
+	public void testLargeFieldsAreBounded() {
+		for (final Model model : Model.values()) {
+			final Field field = new FlowerFields(5, solver).field(model, 500);
+			Assert.assertFalse(field.solved);
+			Assert.assertEquals(500, new BusyBeeGraph(field.connections).size());
+			Assert.assertTrue(field.lower > 0);
+			Assert.assertTrue(field.lower <= field.upper);
+			Assert.assertEquals(field.connections, new FlowerFields(5, null).field(model, 500).connections);
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.engehausen.cc2;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.data.EditDistanceData;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.impl.exiting.ExitingEditDistance;
+
+public class ForkedRunnerTest {
+
+	@Test
+	public void testChildExits() throws IOException, ClassNotFoundException {
+		final Inputs inputs = new Inputs();
+		inputs.editDistances = Arrays.asList(
+			new EditDistanceData("hello", "hallo", 1),
+			new EditDistanceData(ExitingEditDistance.EXIT, "exit!", 1),
+			new EditDistanceData("world", "word", 1)
+		);
+		final Settings settings = new Settings();
+		settings.forkArguments = Collections.singletonList(Main.ARG_RERUN);
+		try (final Executor executor = new Executor(inputs, settings)) {
+			final ForkedRunner runner = new ForkedRunner(executor, inputs, settings);
+			try {
+				runner.run(Class.forName("de.engehausen.cc2.impl.exiting.package-info"));
+			} finally {
+				runner.close();
+			}
+		}
+		Assert.assertTrue(record(inputs.editDistances.get(0)).ok);
+		for (final EditDistanceData data : inputs.editDistances.subList(1, 3)) {
+			final Record record = record(data);
+			Assert.assertFalse(record.ok);
+			Assert.assertEquals("no record received, forked JVM exited with code 0", record.reason);
+		}
+	}
+
+	private static Record record(final EditDistanceData data) {
+		Assert.assertNotNull("no record", data.results);
+		return data.results.get("exiting");
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.engehausen.cc2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.engehausen.cc2.data.EditDistanceData;
+import de.engehausen.cc2.data.Results.Record;
+
+public class ResultCacheTest {
+
+	private ResultCache cache;
+	private String fingerprint;
+
+	@Before
+	public void setup() throws IOException, ClassNotFoundException {
+		final Path folder = Files.createTempDirectory("cc2-cache");
+		folder.toFile().deleteOnExit();
+		cache = new ResultCache(folder, "best of 10");
+		fingerprint = ResultCache.fingerprint(Class.forName("de.engehausen.cc2.impl.examples.package-info"), Collections.singletonList("/examples/rpnDemo.lisp"));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final String key = cache.key(fingerprint, new EditDistanceData("abc", "abd", 1), 0, Collections.emptyList());
+		Assert.assertNull(cache.get(key));
+		cache.put(key, new Record(null, "[R(2,d)]", 2500000));
+		final Record record = cache.get(key);
+		Assert.assertNotNull(record);
+		Assert.assertTrue(record.ok);
+		Assert.assertEquals("[R(2,d)]", record.response);
+		Assert.assertEquals(2.5d, record.millis, 0.0001d);
+	}
+
+	@Test
+	public void testKeys() throws IOException {
+		final EditDistanceData data = new EditDistanceData("abc", "abd", 1);
+		final String key = cache.key(fingerprint, data, 0, Collections.emptyList());
+		data.results = new HashMap<>();
+		data.results.put("someone", new Record(null, null, 1));
+		Assert.assertEquals("results must not be part of the key", key, cache.key(fingerprint, data, 0, Collections.emptyList()));
+		Assert.assertNotEquals(key, cache.key(fingerprint, data, 100, Collections.emptyList()));
+		Assert.assertNotEquals(key, cache.key(fingerprint + "x", data, 0, Collections.emptyList()));
+		Assert.assertNotEquals(key, cache.key(fingerprint, new EditDistanceData("abc", "abe", 1), 0, Collections.emptyList()));
+	}
+
+}
@@ -0,0 +1,60 @@
+package de.engehausen.cc2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SupervisorTest {
+
+	private Supervisor supervisor;
+
+	@Before
+	public void setup() {
+		supervisor = new Supervisor();
+	}
+
+	@Test
+	public void testCompletes() throws Exception {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		Assert.assertEquals("done", supervisor.call(() -> "done", () -> deadline));
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		try {
+			supervisor.call(() -> {
+				throw new IllegalArgumentException("expected");
+			}, () -> deadline);
+			Assert.fail("exception expected");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("expected", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+		try {
+			supervisor.call(() -> {
+				while (true) {
+					spin();
+				}
+			}, () -> deadline);
+			Assert.fail("timeout expected");
+		} catch (Supervisor.Timeout e) {
+			Assert.assertNotNull(e.getThreadDump());
+			Assert.assertTrue(e.getThreadDump(), e.getThreadDump().contains("spin"));
+		}
+		// the supervisor continues with a fresh thread
+		final long next = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		Assert.assertEquals("next", supervisor.call(() -> "next", () -> next));
+	}
+
+	private static void spin() {
+		Thread.yield();
+	}
+
+}
@@ -0,0 +1,54 @@
+package de.engehausen.cc2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import de.engehausen.cc2.data.XmlData;
+
+public class XmlCorpusTest {
+
+	private static final String EASY_NS = "http://localhost/easy-in";
+
+	@Test
+	public void testEasy() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final XmlData data = new XmlCorpus(1, 3).easy(32 << 10, out);
+		Assert.assertTrue(out.size() > 24 << 10);
+		final Document document = parse(out.toByteArray());
+		final int items = document.getElementsByTagNameNS(EASY_NS, "item").getLength();
+		Assert.assertTrue(items > 0);
+		Assert.assertTrue(data.xpathAsserts.contains("count(/items/item) = " + items));
+		Assert.assertTrue(document.getElementsByTagNameNS(EASY_NS, "city").getLength() > 0);
+	}
+
+	@Test
+	public void testHardIsSeeded() throws Exception {
+		final ByteArrayOutputStream one = new ByteArrayOutputStream();
+		final ByteArrayOutputStream two = new ByteArrayOutputStream();
+		final XmlData data = new XmlCorpus(7, 4).hard(16 << 10, one);
+		Assert.assertEquals(data.xpathAsserts, new XmlCorpus(7, 4).hard(16 << 10, two).xpathAsserts);
+		Assert.assertArrayEquals(one.toByteArray(), two.toByteArray());
+		Assert.assertEquals("a", parse(one.toByteArray()).getDocumentElement().getLocalName());
+		Assert.assertEquals("x,y,z", data.parameter);
+	}
+
+	@Test
+	public void testSizes() {
+		Assert.assertEquals(512L << 10, XmlCorpus.parseSize("512k"));
+		Assert.assertEquals(16L << 20, XmlCorpus.parseSize("16M"));
+		Assert.assertEquals(1000L, XmlCorpus.parseSize("1000"));
+	}
+
+	private static Document parse(final byte[] xml) throws Exception {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+	}
+
+}
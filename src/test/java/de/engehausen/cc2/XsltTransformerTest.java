@@ -0,0 +1,41 @@
+package de.engehausen.cc2;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class XsltTransformerTest {
+
+	private static final String XSLT = "/examples/xsltEasyDemo.xslt";
+	private static final String XML = "/xml/inEasy.xml";
+
+	@Test
+	public void testCachedTemplates() throws Exception {
+		final XsltTransformer first = new XsltTransformer();
+		final XsltTransformer second = new XsltTransformer();
+		final Transformer one = first.newTransformer(XSLT);
+		final Transformer two = second.newTransformer(XSLT);
+		Assert.assertFalse(one == two);
+		final Document input = first.document(XML);
+		final Document a = first.docBuilder.newDocument();
+		final Document b = second.docBuilder.newDocument();
+		one.transform(new DOMSource(input), new DOMResult(a));
+		two.transform(new DOMSource(second.document(XML)), new DOMResult(b));
+		Assert.assertTrue(a.isEqualNode(b));
+	}
+
+	@Test
+	public void testCachedDocuments() throws Exception {
+		final XsltTransformer transformer = new XsltTransformer();
+		final Document document = transformer.document(XML);
+		Assert.assertSame(document, transformer.document(XML));
+		transformer.evict(XML);
+		Assert.assertFalse(document == transformer.document(XML));
+		Assert.assertNull(transformer.document("/xml/doesNotExist.xml"));
+	}
+
+}
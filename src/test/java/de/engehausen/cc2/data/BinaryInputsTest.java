@@ -0,0 +1,91 @@
+package de.engehausen.cc2.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BinaryInputsTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final ObjectMapper mapper = new ObjectMapper();
+		final Inputs expected;
+		try (final InputStream stream = BinaryInputsTest.class.getResourceAsStream("/testInputs.json")) {
+			expected = mapper.readValue(stream, Inputs.class);
+		}
+		expected.beeGraphs.get(0).timeout = Long.valueOf(250);
+		final Path file = Files.createTempFile("cc2-inputs", ".bin");
+		try {
+			try (final OutputStream stream = Files.newOutputStream(file)) {
+				BinaryInputs.write(expected, stream);
+			}
+			final Inputs inputs = InputsLoader.load(file);
+			Assert.assertTrue(inputs.beeGraphs instanceof LazyList);
+			Assert.assertFalse(((LazyList<?>) inputs.beeGraphs).isLoaded());
+			Assert.assertEquals(mapper.writeValueAsString(expected), mapper.writeValueAsString(inputs));
+			Assert.assertTrue(Files.size(file) < mapper.writeValueAsBytes(expected).length);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testWrite() throws IOException {
+		final ObjectMapper mapper = new ObjectMapper();
+		final Inputs expected;
+		try (final InputStream stream = BinaryInputsTest.class.getResourceAsStream("/testInputs.json")) {
+			expected = mapper.readValue(stream, Inputs.class);
+		}
+		for (final String suffix : new String[] { ".json", ".json.gz", ".bin", ".bin.gz" }) {
+			final Path file = Files.createTempFile("cc2-inputs", suffix);
+			try {
+				BinaryInputs.write(expected, file);
+				if (".json".equals(suffix)) {
+					final String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+					Assert.assertFalse(json, json.contains("null"));
+				}
+				Assert.assertEquals(suffix, mapper.writeValueAsString(expected), mapper.writeValueAsString(InputsLoader.load(file)));
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final int[] ints = { 0, 1, -1, 63, -64, 64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		final long[] longs = { 0, -1, Long.MAX_VALUE, Long.MIN_VALUE };
+		try (final BinaryInputs.Encoder out = new BinaryInputs.Encoder(bytes)) {
+			for (final int value : ints) {
+				out.writeVarInt(value);
+			}
+			for (final long value : longs) {
+				out.writeVarLong(value);
+			}
+			out.writeString(null);
+			out.writeString("äöü");
+		}
+		try (final BinaryInputs.Decoder in = new BinaryInputs.Decoder(new ByteArrayInputStream(bytes.toByteArray()))) {
+			for (final int value : ints) {
+				Assert.assertEquals(value, in.readVarInt());
+			}
+			for (final long value : longs) {
+				Assert.assertEquals(value, in.readVarLong());
+			}
+			Assert.assertNull(in.readString());
+			Assert.assertEquals("äöü", in.readString());
+		}
+	}
+
+}
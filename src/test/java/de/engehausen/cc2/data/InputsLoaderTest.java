@@ -0,0 +1,92 @@
+package de.engehausen.cc2.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+
+import de.engehausen.cc2.data.Results.Record;
+
+public class InputsLoaderTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static byte[] json;
+
+	@BeforeClass
+	public static void setup() throws IOException {
+		try (final InputStream stream = InputsLoaderTest.class.getResourceAsStream("/testInputs.json")) {
+			json = ByteStreams.toByteArray(stream);
+		}
+	}
+
+	@Test
+	public void testPlain() throws IOException {
+		final Path file = Files.createTempFile("cc2-inputs", ".json");
+		try {
+			Files.write(file, json);
+			verify(InputsLoader.load(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testGzip() throws IOException {
+		final Path file = Files.createTempFile("cc2-inputs", ".json.gz");
+		try {
+			try (final OutputStream stream = new GZIPOutputStream(Files.newOutputStream(file))) {
+				stream.write(json);
+			}
+			verify(InputsLoader.load(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRelease() throws IOException {
+		final Path file = Files.createTempFile("cc2-inputs", ".json");
+		try {
+			Files.write(file, json);
+			final LazyList<?> list = (LazyList<?>) InputsLoader.load(file).beeGraphs;
+			list.acquire();
+			list.acquire();
+			final Results data = list.get(0);
+			data.results = Collections.singletonMap("someone", new Record("failed", null, 0));
+			list.release();
+			Assert.assertTrue(list.isLoaded());
+			list.release();
+			Assert.assertFalse(list.isLoaded());
+			// the input is read again, its records are kept
+			Assert.assertNotSame(data, list.get(0));
+			Assert.assertEquals("failed", list.get(0).results.get("someone").reason);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	protected void verify(final Inputs inputs) throws IOException {
+		final Inputs expected = MAPPER.readValue(json, Inputs.class);
+		final Map<String, List<? extends Results>> challenges = inputs.challenges();
+		Assert.assertEquals(expected.challenges().keySet(), challenges.keySet());
+		for (final Map.Entry<String, List<? extends Results>> entry : challenges.entrySet()) {
+			Assert.assertTrue(entry.getValue() instanceof LazyList);
+			Assert.assertFalse(entry.getKey(), ((LazyList<?>) entry.getValue()).isLoaded());
+		}
+		Assert.assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(inputs));
+	}
+
+}
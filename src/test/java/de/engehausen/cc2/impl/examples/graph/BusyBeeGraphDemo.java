@@ -0,0 +1,24 @@
+package de.engehausen.cc2.impl.examples.graph;
+
+import static org.junit.Assert.assertEquals;
+
+import de.engehausen.cc2.api.BusyBeeGraphFunction;
+import de.engehausen.cc2.api.FlowerGraph;
+
+public class BusyBeeGraphDemo implements BusyBeeGraphFunction {
+
+	@Override
+	public int[] apply(final FlowerGraph graph, final int maxTime) {
+		assertEquals(3, graph.size());
+		assertEquals(3, maxTime);
+		final int a = graph.id("A");
+		final int b = graph.id("B");
+		final int c = graph.id("C");
+		assertEquals(1, graph.time(a, b));
+		assertEquals(2, graph.time(b, c));
+		assertEquals(FlowerGraph.NONE, graph.time(a, c));
+		// return one possible solution for this
+		return new int[] { a, b, c };
+	}
+
+}
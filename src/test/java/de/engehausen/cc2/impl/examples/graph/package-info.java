@@ -0,0 +1,14 @@
+/**
+ * Coding Challenge II contribution demonstration for the flower graph variant
+ * of the busy bee challenge. Like the other examples, this does not solve the
+ * challenge, but shows the expected input and output for a specific case.
+ */
+@Contribution(
+	// one or more authors for the solutions
+	authors = { "Jan Engehausen" },
+	// a class for solving the challenge on the prebuilt flower graph
+	busyBeeGraph = BusyBeeGraphDemo.class
+)
+package de.engehausen.cc2.impl.examples.graph;
+
+import de.engehausen.cc2.api.Contribution;
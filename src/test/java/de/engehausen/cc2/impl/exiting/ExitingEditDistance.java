@@ -0,0 +1,23 @@
+package de.engehausen.cc2.impl.exiting;
+
+import java.util.List;
+
+import de.engehausen.cc2.api.CharacterOperation;
+import de.engehausen.cc2.api.EditDistanceFunction;
+import de.engehausen.cc2.reference.EditDistance;
+
+public class ExitingEditDistance implements EditDistanceFunction {
+
+	/** the input on which the JVM is terminated */
+	public static final String EXIT = "exit";
+
+	@Override
+	public List<CharacterOperation> apply(final String from, final String to) {
+		if (EXIT.equals(from)) {
+			// exits normally, as the Lisp debugger hook does
+			System.exit(0);
+		}
+		return EditDistance.script(from, to);
+	}
+
+}
@@ -0,0 +1,12 @@
+/**
+ * Contribution terminating the JVM in the middle of a run, like a Lisp
+ * contribution ending up in the debugger hook, to check that the inputs
+ * it did not get to are recorded as failures. Only to be run forked.
+ */
+@Contribution(
+	authors = { "Jan Engehausen" },
+	minimalEditDistance = ExitingEditDistance.class
+)
+package de.engehausen.cc2.impl.exiting;
+
+import de.engehausen.cc2.api.Contribution;
@@ -0,0 +1,21 @@
+package de.engehausen.cc2.impl.tampering;
+
+import java.util.Arrays;
+
+import de.engehausen.cc2.api.BusyBeeGraphFunction;
+import de.engehausen.cc2.api.FlowerGraph;
+
+public class TamperingBusyBee implements BusyBeeGraphFunction {
+
+	@Override
+	public int[] apply(final FlowerGraph graph, final int maxTime) {
+		// connect all flowers at no cost
+		if (graph.matrix() != null) {
+			Arrays.fill(graph.matrix(), 0);
+		}
+		Arrays.fill(graph.times(), 0);
+		// A - C - B is only possible with the modified graph
+		return new int[] { graph.id("A"), graph.id("C"), graph.id("B") };
+	}
+
+}
@@ -0,0 +1,11 @@
+/**
+ * Contribution modifying the flower graph it is given, to check that this
+ * neither lets its own response pass nor affects other contributions.
+ */
+@Contribution(
+	authors = { "Jan Engehausen" },
+	busyBeeGraph = TamperingBusyBee.class
+)
+package de.engehausen.cc2.impl.tampering;
+
+import de.engehausen.cc2.api.Contribution;
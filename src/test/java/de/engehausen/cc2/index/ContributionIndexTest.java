@@ -0,0 +1,40 @@
+package de.engehausen.cc2.index;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContributionIndexTest {
+
+	private static final String EXAMPLES = "de.engehausen.cc2.impl.examples.package-info";
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Map<String, List<String>> entries = new TreeMap<>();
+		entries.put("a.package-info", Arrays.asList("/a/one.js", "/a/two.lisp"));
+		entries.put("b.package-info", Collections.emptyList());
+		final StringWriter writer = new StringWriter();
+		ContributionIndex.write(entries, writer);
+		final Map<String, List<String>> read = new TreeMap<>();
+		ContributionIndex.read(new StringReader(writer.toString()), read);
+		Assert.assertEquals(entries, read);
+	}
+
+	@Test
+	public void testExamplesIndexed() throws IOException {
+		final Optional<ContributionIndex> index = ContributionIndex.load(ContributionIndexTest.class.getClassLoader());
+		Assert.assertTrue(index.isPresent());
+		Assert.assertTrue(index.get().classNames().contains(EXAMPLES));
+		Assert.assertTrue(index.get().resources(EXAMPLES).contains("/examples/rpnDemo.lisp"));
+	}
+
+}
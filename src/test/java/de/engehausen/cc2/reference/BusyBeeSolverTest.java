@@ -0,0 +1,109 @@
+package de.engehausen.cc2.reference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.reference.BusyBeeSolver.Solution;
+import de.engehausen.cc2.verifiers.BusyBeeVerifier;
+
+public class BusyBeeSolverTest {
+
+	private final BusyBeeSolver solver = new BusyBeeSolver();
+	private final BusyBeeVerifier verifier = new BusyBeeVerifier();
+
+	@Test
+	public void testSimple() {
+		final BusyBeeData data = new BusyBeeData(Arrays.asList(
+			new Connection("A", "B", 1),
+			new Connection("B", "C", 2)
+		), 0, false);
+		final Solution solution = solver.solve(BusyBeeGraph.of(data));
+		Assert.assertTrue(solution.optimal);
+		Assert.assertEquals(3, solution.time);
+	}
+
+	@Test
+	public void testNoPath() {
+		// a star cannot be visited
+		final List<Connection> connections = new ArrayList<>();
+		for (int i = 1; i < 25; i++) {
+			connections.add(new Connection("center", "n" + i, i));
+		}
+		final BusyBeeGraph small = new BusyBeeGraph(connections.subList(0, 5));
+		final BusyBeeGraph large = new BusyBeeGraph(connections);
+		Assert.assertNull(solver.solve(small).path);
+		Assert.assertNull(solver.solve(large).path);
+		Assert.assertTrue(solver.solve(large).optimal);
+	}
+
+	@Test
+	public void testSearchMatchesDynamicProgramming() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 20; round++) {
+			final int size = 6 + random.nextInt(8);
+			final List<Connection> connections = new ArrayList<>();
+			for (int a = 0; a < size; a++) {
+				for (int b = a + 1; b < size; b++) {
+					if (random.nextInt(3) > 0) {
+						connections.add(new Connection("n" + a, "n" + b, 1 + random.nextInt(100)));
+					}
+				}
+			}
+			final BusyBeeData data = new BusyBeeData(connections, 0, false);
+			final BusyBeeGraph graph = BusyBeeGraph.of(data);
+			final Solution expected = solver.heldKarp(graph);
+			final Solution actual = solver.branchAndBound(graph);
+			Assert.assertEquals(expected.path == null, actual.path == null);
+			if (expected.path != null) {
+				Assert.assertEquals(expected.time, actual.time);
+				data.maxTime = expected.time;
+				Assert.assertNull(verifier.verify(names(graph, expected.path), data));
+				Assert.assertNull(verifier.verify(names(graph, actual.path), data));
+				data.maxTime--;
+				Assert.assertEquals("not within time limit", verifier.verify(names(graph, actual.path), data));
+			}
+		}
+	}
+
+	@Test
+	public void testDensity() {
+		final Random random = new Random(7);
+		for (int round = 0; round < 4; round++) {
+			final int size = 15 + round;
+			final List<Connection> sparse = new ArrayList<>();
+			final List<Connection> dense = new ArrayList<>();
+			for (int a = 0; a < size; a++) {
+				for (int b = a + 1; b < size; b++) {
+					final Connection connection = new Connection("n" + a, "n" + b, 1 + random.nextInt(100));
+					dense.add(connection);
+					if (b == a + 1 || random.nextInt(10) == 0) {
+						sparse.add(connection);
+					}
+				}
+			}
+			final BusyBeeGraph sparseGraph = new BusyBeeGraph(sparse);
+			final BusyBeeGraph denseGraph = new BusyBeeGraph(dense);
+			Assert.assertTrue(BusyBeeSolver.isDynamic(sparseGraph));
+			Assert.assertFalse(BusyBeeSolver.isDynamic(denseGraph));
+			Assert.assertEquals(solver.heldKarp(sparseGraph).time, solver.branchAndBound(sparseGraph).time);
+			Assert.assertEquals(solver.heldKarp(denseGraph).time, solver.solve(denseGraph).time);
+		}
+	}
+
+	private static List<String> names(final BusyBeeGraph graph, final int[] path) {
+		final List<String> result = new ArrayList<>(path.length);
+		for (final int id : path) {
+			result.add(graph.name(id));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,88 @@
+package de.engehausen.cc2.reference;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.CharacterOperation;
+import de.engehausen.cc2.data.EditDistanceData;
+import de.engehausen.cc2.verifiers.EditDistanceVerifier;
+
+public class EditDistanceTest {
+
+	private final Random random = new Random(23);
+
+	@Test
+	public void testSimple() {
+		Assert.assertEquals(1, EditDistance.distance("hello", "hallo"));
+		Assert.assertEquals(3, EditDistance.distance("kitten", "sitting"));
+		Assert.assertEquals(5, EditDistance.distance("", "abcde"));
+		Assert.assertEquals(5, EditDistance.distance("abcde", ""));
+		Assert.assertTrue(EditDistance.within("kitten", "sitting", 3));
+		Assert.assertFalse(EditDistance.within("kitten", "sitting", 2));
+	}
+
+	@Test
+	public void testAgainstMatrix() {
+		final EditDistanceVerifier verifier = new EditDistanceVerifier();
+		for (int round = 0; round < 200; round++) {
+			// lengths beyond one and two words of 64 bits
+			final String from = random(random.nextInt(150), 2 + random.nextInt(4));
+			final String to = round % 2 == 0 ? random(random.nextInt(150), 2 + random.nextInt(4)) : mutate(from, random.nextInt(10));
+			final int expected = matrix(from, to);
+			Assert.assertEquals(from + " / " + to, expected, EditDistance.distance(from, to));
+			Assert.assertTrue(EditDistance.within(from, to, expected));
+			Assert.assertFalse(EditDistance.within(from, to, expected - 1));
+			final List<CharacterOperation> script = EditDistance.script(from, to);
+			Assert.assertNull(verifier.verify(script, new EditDistanceData(from, to, expected)));
+		}
+	}
+
+	@Test
+	public void testLongSimilar() {
+		final String from = random(20000, 4);
+		final String to = mutate(from, 30);
+		final int distance = EditDistance.distance(from, to);
+		Assert.assertTrue(distance <= 30);
+		Assert.assertTrue(EditDistance.within(from, to, distance));
+		Assert.assertFalse(EditDistance.within(from, to, distance - 1));
+	}
+
+	private String random(final int length, final int letters) {
+		final char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) ('a' + random.nextInt(letters));
+		}
+		return new String(chars);
+	}
+
+	private String mutate(final String text, final int operations) {
+		final StringBuilder result = new StringBuilder(text);
+		for (int i = 0; i < operations; i++) {
+			final int position = random.nextInt(result.length() + 1);
+			if (position == result.length() || random.nextBoolean()) {
+				result.insert(position, 'z');
+			} else {
+				result.deleteCharAt(position);
+			}
+		}
+		return result.toString();
+	}
+
+	private static int matrix(final String from, final String to) {
+		final int[][] d = new int[from.length() + 1][to.length() + 1];
+		for (int i = 0; i <= from.length(); i++) {
+			for (int j = 0; j <= to.length(); j++) {
+				if (i == 0 || j == 0) {
+					d[i][j] = i + j;
+				} else {
+					d[i][j] = Math.min(Math.min(d[i - 1][j], d[i][j - 1]) + 1, d[i - 1][j - 1] + (from.charAt(i - 1) == to.charAt(j - 1) ? 0 : 1));
+				}
+			}
+		}
+		return d[from.length()][to.length()];
+	}
+
+}
@@ -0,0 +1,52 @@
+package de.engehausen.cc2.reference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.FlowerFields;
+import de.engehausen.cc2.FlowerFields.Field;
+import de.engehausen.cc2.FlowerFields.Model;
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.data.BusyBeeGraph;
+
+public class PathBoundTest {
+
+	@Test
+	public void testBelowFastestPath() {
+		final BusyBeeSolver solver = new BusyBeeSolver();
+		final FlowerFields generator = new FlowerFields(11, null);
+		for (final Model model : Model.values()) {
+			for (int round = 0; round < 5; round++) {
+				final Field field = generator.field(model, 8 + 2 * round);
+				final BusyBeeGraph graph = new BusyBeeGraph(field.connections);
+				final int fastest = solver.solve(graph).time;
+				final int bound = PathBound.of(graph, field.upper);
+				Assert.assertTrue(bound + " > " + fastest, bound <= fastest);
+				Assert.assertTrue(bound >= new PathBound(graph).spanningTree(new double[graph.size()]));
+			}
+		}
+	}
+
+	@Test
+	public void testPath() {
+		// the only path is the line itself
+		final List<Connection> connections = new ArrayList<>();
+		for (int i = 1; i < 10; i++) {
+			connections.add(new Connection("n" + (i - 1), "n" + i, i));
+		}
+		Assert.assertEquals(45, PathBound.of(new BusyBeeGraph(connections), 0));
+	}
+
+	@Test
+	public void testUnreachable() {
+		final BusyBeeGraph graph = new BusyBeeGraph(Arrays.asList(
+			new Connection("a", "b", 1),
+			new Connection("c", "d", 1)));
+		Assert.assertEquals(PathBound.UNREACHABLE, PathBound.of(graph, 0));
+	}
+
+}
@@ -0,0 +1,36 @@
+package de.engehausen.cc2.reporters;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.data.EditDistanceData;
+import de.engehausen.cc2.data.Inputs;
+import de.engehausen.cc2.data.Results.Record;
+
+public class ConsoleTest {
+
+	@Test
+	public void testSummary() {
+		final Console console = new Console();
+		Assert.assertFalse(console.usesRecords());
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final Record passed = new Record(null, "ok", 0);
+		passed.millis = 1.5;
+		final Record failed = new Record("wrong", null, 0);
+		failed.millis = 2;
+		console.onRecord(Inputs.EDIT_DISTANCES, new EditDistanceData("a", "b", 1), "someone", passed, output);
+		console.onRecord(Inputs.EDIT_DISTANCES, new EditDistanceData("c", "d", 1), "someone", failed, output);
+		output.reset();
+		// the summary does not depend on the records kept in the inputs
+		final Inputs inputs = new Inputs();
+		console.generate(inputs, output);
+		final String summary = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertTrue(summary, summary.contains("Java: Minimal Edit Distance"));
+		Assert.assertTrue(summary, summary.contains(String.format("someone: 1/2 passed, %.3fms", Double.valueOf(3.5))));
+		Assert.assertFalse(summary, summary.contains("Busy Bee"));
+	}
+
+}
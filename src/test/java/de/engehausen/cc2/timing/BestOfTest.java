@@ -0,0 +1,43 @@
+package de.engehausen.cc2.timing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.data.Results.Record;
+
+public class BestOfTest {
+
+	@Test
+	public void testFastest() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		final Record record = new BestOf(3).measure(() -> {
+			final int call = calls.incrementAndGet();
+			if (call != 2) {
+				Thread.sleep(50);
+			}
+			return new Record(null, "run " + call, 0);
+		}, Sampler.NONE);
+		Assert.assertEquals(3, calls.get());
+		Assert.assertEquals("the record of the fastest run", "run 2", record.response);
+		Assert.assertTrue(record.millis < 50);
+	}
+
+	@Test
+	public void testInterrupted() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		try {
+			final Record record = new BestOf(10).measure(() -> {
+				calls.incrementAndGet();
+				Thread.currentThread().interrupt();
+				return new Record(null, "interrupted", 0);
+			}, Sampler.NONE);
+			Assert.assertEquals("no run after the interruption", 1, calls.get());
+			Assert.assertEquals("interrupted", record.response);
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+}
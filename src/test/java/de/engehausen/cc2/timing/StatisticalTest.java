@@ -0,0 +1,66 @@
+package de.engehausen.cc2.timing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.data.Results.Record;
+import de.engehausen.cc2.data.Results.Statistics;
+
+public class StatisticalTest {
+
+	@Test
+	public void testStudentT() {
+		Assert.assertEquals(636.619, Statistical.studentT(1), 0.001);
+		Assert.assertEquals(12.924, Statistical.studentT(3), 0.001);
+		Assert.assertEquals(4.781, Statistical.studentT(9), 0.001);
+		Assert.assertEquals(3.883, Statistical.studentT(19), 0.001);
+	}
+
+	@Test
+	public void testStatistics() {
+		final long[] samples = new long[100];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (100 - i) * 1000000L;
+		}
+		final Statistics statistics = Statistical.statistics(samples);
+		Assert.assertEquals(100, statistics.samples);
+		Assert.assertEquals(50.5, statistics.mean, 0.0001);
+		Assert.assertEquals(1, statistics.min, 0.0001);
+		Assert.assertEquals(100, statistics.max, 0.0001);
+		Assert.assertEquals(50, statistics.p50, 0.0001);
+		Assert.assertEquals(90, statistics.p90, 0.0001);
+		Assert.assertEquals(99, statistics.p99, 0.0001);
+		Assert.assertTrue(statistics.error > 0);
+	}
+
+	@Test
+	public void testMeasure() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		final Record record = new Statistical(3, 4, 2).measure(() -> {
+			calls.incrementAndGet();
+			return new Record(null, "ok", 0);
+		}, Sampler.NONE);
+		Assert.assertEquals(14, calls.get());
+		Assert.assertNotNull(record.statistics);
+		Assert.assertEquals(8, record.statistics.samples);
+		Assert.assertEquals(record.statistics.mean, record.millis, 0);
+	}
+
+	@Test
+	public void testInterrupted() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		try {
+			new Statistical(3, 4, 2).measure(() -> {
+				calls.incrementAndGet();
+				Thread.currentThread().interrupt();
+				return new Record(null, "ok", 0);
+			}, Sampler.NONE);
+			Assert.assertEquals("no invocation after the interruption", 1, calls.get());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+}
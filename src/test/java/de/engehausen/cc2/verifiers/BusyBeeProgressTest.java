@@ -0,0 +1,68 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Results.Record;
+
+public class BusyBeeProgressTest {
+
+	@Test
+	public void testImprovements() {
+		final BusyBeeData data = new BusyBeeData(Arrays.asList(
+			new Connection("a", "b", 10),
+			new Connection("b", "c", 10),
+			new Connection("c", "d", 10),
+			new Connection("a", "d", 40),
+			new Connection("a", "c", 35)
+		), 80, false);
+		final BusyBeeGraph graph = BusyBeeGraph.of(data);
+		final int a = graph.id("a");
+		final int b = graph.id("b");
+		final int c = graph.id("c");
+		final int d = graph.id("d");
+		final BusyBeeProgress progress = new BusyBeeProgress(data);
+		// invalid paths are ignored
+		progress.accept(null);
+		progress.accept(new int[] { a, b, c });
+		progress.accept(new int[] { a, c, b, b });
+		progress.accept(new int[] { b, d, a, c });
+		final int[] path = { b, a, d, c };
+		progress.accept(path);
+		// the published array may be reused
+		path[0] = d;
+		path[1] = a;
+		path[2] = c;
+		path[3] = b;
+		progress.accept(path);
+		progress.accept(new int[] { c, d, a, b });
+		progress.accept(new int[] { a, b, c, d });
+		final Record record = new Record();
+		progress.fill(record);
+		// 85 exceeds the limit, the second 60 is no improvement
+		Assert.assertEquals(2, record.improvements.size());
+		Assert.assertEquals(60, record.improvements.get(0).cost);
+		Assert.assertEquals(100d, record.improvements.get(0).gap.doubleValue(), 1e-9);
+		Assert.assertEquals(30, record.improvements.get(1).cost);
+		Assert.assertEquals(0d, record.improvements.get(1).gap.doubleValue(), 1e-9);
+		Assert.assertTrue(record.firstMillis.doubleValue() <= record.bestMillis.doubleValue());
+		Assert.assertEquals(record.improvements.get(1).millis, record.bestMillis.doubleValue(), 1e-9);
+	}
+
+	@Test
+	public void testNothingPublished() {
+		final BusyBeeData data = new BusyBeeData(Arrays.asList(new Connection("a", "b", 10)), 5, false);
+		final BusyBeeProgress progress = new BusyBeeProgress(data);
+		progress.accept(new int[] { 0, 1 });
+		final Record record = new Record();
+		progress.fill(record);
+		Assert.assertNull(record.firstMillis);
+		Assert.assertNull(record.improvements);
+	}
+
+}
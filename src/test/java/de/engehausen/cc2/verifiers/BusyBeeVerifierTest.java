@@ -0,0 +1,137 @@
+package de.engehausen.cc2.verifiers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.Connection;
+import de.engehausen.cc2.api.FlowerGraph;
+import de.engehausen.cc2.api.ResponseBuffer;
+import de.engehausen.cc2.data.BusyBeeData;
+import de.engehausen.cc2.data.BusyBeeGraph;
+import de.engehausen.cc2.data.Results.Record;
+
+public class BusyBeeVerifierTest {
+
+	private BusyBeeVerifier verifier;
+	private BusyBeeData data;
+
+	@Before
+	public void init() {
+		verifier = new BusyBeeVerifier();
+		data = new BusyBeeData(Arrays.asList(
+			new Connection("a", "b", 10),
+			new Connection("b", "c", 20),
+			new Connection("c", "d", 30),
+			new Connection("a", "d", 5),
+			new Connection("b", "c", 15)
+		), 40, false);
+	}
+
+	@Test
+	public void testVerify() {
+		Assert.assertNull(verifier.verify(Arrays.asList("c", "b", "a", "d"), data));
+		Assert.assertNull(verifier.verify(Arrays.asList("d", "a", "b", "c"), data));
+		Assert.assertEquals("not within time limit", verifier.verify(Arrays.asList("a", "b", "c", "d"), data));
+		Assert.assertEquals("all nodes must be visited", verifier.verify(Arrays.asList("a", "b", "c"), data));
+		Assert.assertEquals("the path contained duplicates", verifier.verify(Arrays.asList("a", "b", "c", "c"), data));
+		Assert.assertEquals("the path contained duplicates", verifier.verify(Arrays.asList("a", "b", "c", "x"), data));
+		Assert.assertEquals("illegal connection a to c", verifier.verify(Arrays.asList("a", "c", "b", "d"), data));
+		Assert.assertEquals("null response", verifier.verify(null, data));
+	}
+
+	@Test
+	public void testScore() {
+		final Record record = new Record();
+		final List<String> path = Arrays.asList("c", "b", "a", "d");
+		Assert.assertNull(verifier.verify(path, data));
+		verifier.score(path, data, record);
+		Assert.assertEquals(Long.valueOf(30), record.cost);
+		// the only path is the fastest one
+		Assert.assertEquals(30, BusyBeeVerifier.lowerBound(data));
+		Assert.assertEquals(0d, record.gap.doubleValue(), 1e-9);
+	}
+
+	@Test
+	public void testSharedIndex() {
+		final BusyBeeGraph graph = BusyBeeGraph.of(data);
+		Assert.assertSame(graph, BusyBeeGraph.of(data));
+		Assert.assertEquals(4, graph.size());
+		Assert.assertEquals("the last connection counts", 15, graph.time(graph.id("c"), graph.id("b")));
+		Assert.assertEquals(BusyBeeGraph.NONE, graph.time(graph.id("a"), graph.id("c")));
+		Assert.assertEquals(-1, graph.id("x"));
+	}
+
+	@Test
+	public void testMatrix() {
+		final FlowerGraph graph = BusyBeeGraph.of(data);
+		final int[] matrix = graph.matrix();
+		final int a = graph.id("a");
+		final int d = graph.id("d");
+		Assert.assertEquals(16, matrix.length);
+		Assert.assertEquals(5, matrix[a * graph.size() + d]);
+		Assert.assertEquals(FlowerGraph.NONE, matrix[a * graph.size() + a]);
+		Assert.assertArrayEquals(new int[] { a, graph.id("c") }, neighbors(graph, graph.id("b")));
+	}
+
+	@Test
+	public void testSparse() {
+		final int size = BusyBeeGraph.MAX_DENSE + 10;
+		final List<Connection> connections = new ArrayList<>();
+		final List<String> path = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			path.add("n" + i);
+			if (i > 0) {
+				connections.add(new Connection("n" + i, "n" + (i - 1), i));
+			}
+		}
+		connections.add(new Connection("n0", "n2", 1));
+		final BusyBeeData sparse = new BusyBeeData(connections, size * size / 2, false);
+		final BusyBeeGraph graph = BusyBeeGraph.of(sparse);
+		Assert.assertEquals(7, graph.time(graph.id("n6"), graph.id("n7")));
+		Assert.assertEquals(1, graph.time(graph.id("n2"), graph.id("n0")));
+		Assert.assertEquals(BusyBeeGraph.NONE, graph.time(graph.id("n0"), graph.id("n3")));
+		Assert.assertNull(graph.matrix());
+		Assert.assertNull(verifier.verify(path, sparse));
+		sparse.maxTime = size;
+		Assert.assertEquals("not within time limit", verifier.verify(path, sparse));
+		// the buffers of the large graph are reused for the small one
+		Assert.assertNull(verifier.verify(Arrays.asList("c", "b", "a", "d"), data));
+	}
+
+	@Test
+	public void testPrint() throws IOException {
+		final List<String> path = Arrays.asList("c", "b", "a", "d");
+		final StringWriter out = new StringWriter();
+		Assert.assertTrue(verifier.print(path, out));
+		Assert.assertEquals(verifier.toString(path), out.toString());
+		Assert.assertEquals("[]", verifier.toString(new ArrayList<>(), 16));
+		Assert.assertNull(verifier.toString(null, 16));
+	}
+
+	@Test
+	public void testCap() {
+		final List<String> path = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			path.add("\u00e4" + i);
+		}
+		final String full = verifier.toString(path);
+		Assert.assertEquals(full, verifier.toString(path, 4096));
+		final String capped = verifier.toString(path, 64);
+		Assert.assertTrue(capped, capped.endsWith(ResponseBuffer.TRUNCATED));
+		Assert.assertTrue(capped, full.startsWith(capped.substring(0, capped.length() - ResponseBuffer.TRUNCATED.length())));
+		Assert.assertTrue(capped.getBytes(StandardCharsets.UTF_8).length <= 64 + ResponseBuffer.TRUNCATED.length());
+	}
+
+	private static int[] neighbors(final FlowerGraph graph, final int id) {
+		return Arrays.copyOfRange(graph.targets(), graph.offsets()[id], graph.offsets()[id + 1]);
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.engehausen.cc2.verifiers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.CharacterOperation;
+import de.engehausen.cc2.api.ResponseBuffer;
+
+public class EditDistanceVerifierTest {
+
+	private final EditDistanceVerifier verifier = new EditDistanceVerifier();
+
+	@Test
+	public void testPrint() throws IOException {
+		final List<CharacterOperation> script = Arrays.asList(
+			CharacterOperation.insert(0, '\u00e4'),
+			CharacterOperation.replace(3, 'x'),
+			CharacterOperation.remove(7)
+		);
+		final StringWriter out = new StringWriter();
+		Assert.assertTrue(verifier.print(script, out));
+		Assert.assertEquals(verifier.toString(script), out.toString());
+		Assert.assertEquals("", verifier.toString(new ArrayList<>(), 16));
+		Assert.assertFalse(verifier.print(null, out));
+		Assert.assertNull(verifier.toString(null, 16));
+	}
+
+	@Test
+	public void testCap() {
+		final List<CharacterOperation> script = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			script.add(CharacterOperation.insert(i, '\u00e4'));
+		}
+		final String full = verifier.toString(script);
+		Assert.assertEquals(full, verifier.toString(script, 4096));
+		final String capped = verifier.toString(script, 64);
+		Assert.assertTrue(capped, capped.endsWith(ResponseBuffer.TRUNCATED));
+		Assert.assertTrue(capped, full.startsWith(capped.substring(0, capped.length() - ResponseBuffer.TRUNCATED.length())));
+		Assert.assertTrue(capped.getBytes(StandardCharsets.UTF_8).length <= 64 + ResponseBuffer.TRUNCATED.length());
+	}
+
+}
@@ -0,0 +1,79 @@
+package de.engehausen.cc2.verifiers;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.armedbear.lisp.Cons;
+import org.armedbear.lisp.Fixnum;
+import org.armedbear.lisp.Lisp;
+import org.armedbear.lisp.LispObject;
+import org.armedbear.lisp.SimpleString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.ResponseBuffer;
+
+public class LispPrinterTest {
+
+	@Test
+	public void testList() throws IOException {
+		assertPrinted(list(Fixnum.getInstance(1), Fixnum.getInstance(2), Fixnum.getInstance(3)));
+		assertPrinted(list(new SimpleString("a b"), new SimpleString("c")));
+		assertPrinted(Fixnum.getInstance(42));
+	}
+
+	@Test
+	public void testDotted() throws IOException {
+		assertPrinted(new Cons(Fixnum.getInstance(1), Fixnum.getInstance(2)));
+		assertPrinted(new Cons(Fixnum.getInstance(1), new Cons(Fixnum.getInstance(2), new SimpleString("x"))));
+	}
+
+	@Test
+	public void testNested() throws IOException {
+		assertPrinted(list(
+			list(new SimpleString("a"), Fixnum.getInstance(1)),
+			new Cons(new SimpleString("b"), Fixnum.getInstance(2)),
+			list(list(Fixnum.getInstance(3)))
+		));
+		assertPrinted(new Cons(list(Fixnum.getInstance(1), Fixnum.getInstance(2)), new Cons(Fixnum.getInstance(3), Fixnum.getInstance(4))));
+	}
+
+	@Test
+	public void testNull() throws IOException {
+		Assert.assertFalse(LispPrinter.print(null, new StringWriter()));
+		Assert.assertNull(new HuffmanVerifier().toString(null, 16));
+	}
+
+	@Test
+	public void testCap() {
+		final LispObject[] elements = new LispObject[100];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = list(new SimpleString("\u00e4" + i), Fixnum.getInstance(i));
+		}
+		final LispObject object = list(elements);
+		final ReversePolishNotationVerifier verifier = new ReversePolishNotationVerifier();
+		final String full = verifier.toString(object);
+		Assert.assertEquals(full, verifier.toString(object, 4096));
+		final String capped = verifier.toString(object, 64);
+		Assert.assertTrue(capped, capped.endsWith(ResponseBuffer.TRUNCATED));
+		Assert.assertTrue(capped, full.startsWith(capped.substring(0, capped.length() - ResponseBuffer.TRUNCATED.length())));
+		Assert.assertTrue(capped.getBytes(StandardCharsets.UTF_8).length <= 64 + ResponseBuffer.TRUNCATED.length());
+	}
+
+	private static void assertPrinted(final LispObject object) throws IOException {
+		final StringWriter out = new StringWriter();
+		Assert.assertTrue(LispPrinter.print(object, out));
+		Assert.assertEquals(object.printObject(), out.toString());
+		Assert.assertEquals(new HuffmanVerifier().toString(object), new HuffmanVerifier().toString(object, 4096));
+	}
+
+	private static LispObject list(final LispObject... elements) {
+		LispObject result = Lisp.NIL;
+		for (int i = elements.length; i-- > 0; ) {
+			result = new Cons(elements[i], result);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.engehausen.cc2.api.CharacterOperation;
+import de.engehausen.cc2.data.EditDistanceData;
+
+public class PieceTableTest {
+
+	@Test
+	public void testMatchesStringBuilder() {
+		final Random random = new Random(17);
+		final StringBuilder expected = new StringBuilder("the quick brown fox jumps over the lazy dog");
+		final PieceTable actual = new PieceTable(expected.toString(), 4);
+		for (int i = 0; i < 5000; i++) {
+			// positions at and just beyond the end are included
+			final int position = random.nextInt(expected.length() + 2);
+			final char c = (char) ('a' + random.nextInt(26));
+			final boolean valid = position <= expected.length();
+			switch (random.nextInt(3)) {
+			case 0:
+				Assert.assertEquals(valid, actual.insert(position, c));
+				if (valid) {
+					expected.insert(position, c);
+				}
+				break;
+			case 1:
+				Assert.assertEquals(valid, actual.remove(position));
+				if (valid) {
+					expected.delete(position, position + 1);
+				}
+				break;
+			default:
+				Assert.assertEquals(valid, actual.replace(position, c));
+				if (valid) {
+					expected.replace(position, position + 1, Character.toString(c));
+				}
+				break;
+			}
+			Assert.assertEquals(expected.length(), actual.length());
+			if (i % 100 == 0) {
+				Assert.assertEquals(expected.toString(), actual.toString());
+				Assert.assertTrue(actual.contentEquals(expected.toString()));
+			}
+		}
+		expected.setCharAt(expected.length() / 2, '#');
+		Assert.assertFalse(actual.contentEquals(expected.toString()));
+	}
+
+	@Test
+	public void testLongString() {
+		final char[] chars = new char[1 << 20];
+		Arrays.fill(chars, 'x');
+		final String from = new String(chars);
+		chars[0] = 'a';
+		chars[chars.length / 2] = 'b';
+		final String to = new String(chars, 0, chars.length - 1);
+		final EditDistanceVerifier verifier = new EditDistanceVerifier();
+		Assert.assertNull(verifier.verify(Arrays.asList(
+			CharacterOperation.replace(0, 'a'),
+			CharacterOperation.remove(chars.length - 1),
+			CharacterOperation.replace(chars.length / 2, 'b')
+		), new EditDistanceData(from, to, 3)));
+		// editing stops at the first invalid position
+		Assert.assertEquals("operations produce unexpected string: a", verifier.verify(Arrays.asList(
+			CharacterOperation.insert(0, 'a'),
+			CharacterOperation.insert(5, 'c'),
+			CharacterOperation.replace(1, 'b')
+		), new EditDistanceData("", "abc", 3)));
+	}
+
+}
@@ -0,0 +1,79 @@
+package de.engehausen.cc2.verifiers;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.sax.SAXResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import de.engehausen.cc2.XsltTransformer;
+import de.engehausen.cc2.api.ResponseBuffer;
+import de.engehausen.cc2.data.XmlData;
+
+public class StreamingXmlVerifierTest {
+
+	private static final String XSLT = "/examples/xsltHardDemo.xslt";
+	private static final String XML = "/xml/inHard.xml";
+
+	@Test
+	public void testStreamable() {
+		Assert.assertNotNull(StreamingXmlVerifier.compile(data("count(/items//item) = 1", "count(//b)>=3", "count(/p:a/*/p:*) != 0")));
+		Assert.assertNull(StreamingXmlVerifier.compile(data("count(//b[namespace::used]) = 1")));
+		Assert.assertNull(StreamingXmlVerifier.compile(data("//c[2]/@* = 'true'")));
+		Assert.assertNull(StreamingXmlVerifier.compile(data("count(//text()) = 1")));
+		Assert.assertNull(StreamingXmlVerifier.compile(data("count(/a/child::b) = 1")));
+		Assert.assertNull(StreamingXmlVerifier.compile(data("count(b) = 1")));
+	}
+
+	@Test
+	public void testSameAsDocument() throws Exception {
+		for (final String expression : Arrays.asList(
+			"count(//b) = 3", "count(//b) = 2", "count(/*) = 1", "count(//*) > 3",
+			"count(/*/b) = 3", "count(//b//b) = 0", "count(//c) < 2", "count(//c) >= 2")) {
+			final XmlData data = data(expression);
+			final String expected = new XmlVerifier().verify(transform(data), data);
+			final StreamingXmlVerifier.Handler handler = stream(data, 0);
+			Assert.assertEquals(expression, expected, handler.verify());
+			Assert.assertNull(handler.response());
+		}
+	}
+
+	@Test
+	public void testCapturedResponse() throws Exception {
+		final XmlData data = data("count(//b) = 3");
+		final String full = stream(data, Integer.MAX_VALUE).response();
+		Assert.assertTrue(full, full.contains("<b"));
+		final StreamingXmlVerifier.Handler handler = stream(data, 32);
+		Assert.assertNull(handler.verify());
+		Assert.assertTrue(handler.response(), handler.response().endsWith(ResponseBuffer.TRUNCATED));
+		Assert.assertTrue(handler.response(), handler.response().length() <= 32 + ResponseBuffer.TRUNCATED.length());
+	}
+
+	private static Document transform(final XmlData data) throws Exception {
+		final XsltTransformer xslt = new XsltTransformer();
+		final Transformer transformer = xslt.newTransformer(XSLT);
+		transformer.setParameter("flags", data.parameter);
+		final Document output = xslt.docBuilder.newDocument();
+		transformer.transform(xslt.source(XsltTransformer.locate(data.xmlIn, null)), new DOMResult(output));
+		return output;
+	}
+
+	private static StreamingXmlVerifier.Handler stream(final XmlData data, final int cap) throws Exception {
+		final XsltTransformer xslt = new XsltTransformer();
+		final Transformer transformer = xslt.newTransformer(XSLT);
+		transformer.setParameter("flags", data.parameter);
+		final StreamingXmlVerifier.Handler handler = StreamingXmlVerifier.compile(data).newHandler(cap);
+		transformer.transform(xslt.source(XsltTransformer.locate(data.xmlIn, null)), new SAXResult(handler));
+		return handler;
+	}
+
+	private static XmlData data(final String... expressions) {
+		return new XmlData(XML, "x,y,z", expressions.length == 1 ? Collections.singletonList(expressions[0]) : Arrays.asList(expressions));
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.engehausen.cc2.verifiers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import de.engehausen.cc2.api.ResponseBuffer;
+import de.engehausen.cc2.data.XmlData;
+
+public class XmlVerifierTest {
+
+	private XmlVerifier verifier;
+
+	@Before
+	public void init() {
+		verifier = new XmlVerifier();
+	}
+
+	@Test
+	public void testReuse() throws Exception {
+		final XmlData data = new XmlData(null, null, Arrays.asList("count(/a/b)=2", "/a/b[1]='x'"));
+		Assert.assertNull(verifier.verify(parse("<a><b>x</b><b>y</b></a>"), data));
+		Assert.assertEquals("the expectation is not met: count(/a/b)=2", verifier.verify(parse("<a><b>x</b></a>"), data));
+		Assert.assertNull(verifier.verify(parse("<a><b>x</b><b>z</b></a>"), data));
+	}
+
+	@Test
+	public void testNamespaces() throws Exception {
+		final XmlData data = new XmlData(null, null, Arrays.asList("count(/n:a/n:b)=1"));
+		Assert.assertNull(verifier.verify(parse("<n:a xmlns:n='urn:one'><n:b/></n:a>"), data));
+		Assert.assertNull("prefix must resolve against the verified document", verifier.verify(parse("<n:a xmlns:n='urn:two'><n:b/></n:a>"), data));
+		Assert.assertNull(verifier.verify(parse("<n:a xmlns:n='urn:one'><n:b/></n:a>"), data));
+	}
+
+	@Test
+	public void testCap() throws Exception {
+		final Document document = parse("<a><b>\u00e4\u00f6\u00fc</b><b>y</b></a>");
+		final String full = verifier.toString(document);
+		Assert.assertTrue(full, full.contains("<b>y</b>"));
+		Assert.assertEquals(full, verifier.toString(document, 4096));
+		final String capped = verifier.toString(document, 64);
+		Assert.assertTrue(capped, capped.endsWith(ResponseBuffer.TRUNCATED));
+		Assert.assertTrue(capped, full.startsWith(capped.substring(0, capped.length() - ResponseBuffer.TRUNCATED.length())));
+		Assert.assertTrue(capped.getBytes(StandardCharsets.UTF_8).length <= 64 + ResponseBuffer.TRUNCATED.length());
+		Assert.assertEquals("printer must be usable after a capped response", full, verifier.toString(document));
+	}
+
+	private static Document parse(final String xml) throws Exception {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}